@@ -14,6 +14,8 @@ public interface HttpAttribute {
     String TRACE_ID = Constant.PREFIX + "Trace-Id";
     /** 请求时间 */
     String REQUEST_TIME = Constant.PREFIX + "Request-Time";
+    /** 请求开始的 {@link System#nanoTime()}，用于计算延迟 */
+    String REQUEST_NANO_TIME = Constant.PREFIX + "Request-Nano-Time";
 
     /** 时区 */
     String TIME_ZONE = Constant.PREFIX + "Time-Zone";
@@ -0,0 +1,117 @@
+package ext.library.idempotent;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本节点的防重标记缓存，在访问 Redis 之前拦截同一节点上的重复提交
+ * <p>只做第一道过滤：本地未命中时仍以 Redis 为准；本地命中说明本节点在防重间隔内已受理过相同请求，直接拒绝
+ * <p>key 按哈希分散到多个分段，每个分段独立加锁；分段满时先清理过期标记，仍然满则不再缓存新标记，交由 Redis 判断
+ */
+class LocalSubmitCache {
+
+    /**
+     * 每个分段最多缓存的标记数
+     */
+    private static final int STRIPE_CAPACITY = 1024;
+
+    private final Stripe[] stripes;
+
+    LocalSubmitCache() {
+        int size = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 4, 16) - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 写入防重标记
+     *
+     * @param key            防重 key
+     * @param token          本次请求的令牌
+     * @param intervalMillis 防重间隔（单位：毫秒）
+     * @return false 表示本节点在防重间隔内已有相同请求
+     */
+    boolean tryMark(String key, String token, long intervalMillis) {
+        Stripe stripe = stripe(key);
+        long now = System.currentTimeMillis();
+        stripe.lock.lock();
+        try {
+            Mark mark = stripe.marks.get(key);
+            if (mark != null && mark.expireAt > now) {
+                return false;
+            }
+            if (mark == null && stripe.marks.size() >= STRIPE_CAPACITY) {
+                stripe.sweep(now);
+                if (stripe.marks.size() >= STRIPE_CAPACITY) {
+                    return true;
+                }
+            }
+            stripe.marks.put(key, new Mark(token, now + intervalMillis));
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * 删除防重标记，标记已被其他请求重新写入时不删除
+     *
+     * @param key   防重 key
+     * @param token 本次请求的令牌
+     */
+    void release(String key, String token) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            Mark mark = stripe.marks.get(key);
+            if (mark != null && mark.token.equals(token)) {
+                stripe.marks.remove(key);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    /**
+     * 防重标记
+     *
+     * @param token    写入标记的请求令牌
+     * @param expireAt 过期时间（单位：毫秒）
+     */
+    private record Mark(String token, long expireAt) {
+
+    }
+
+    private static final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 防重标记，仅在锁内访问
+         */
+        final Map<String, Mark> marks = new HashMap<>();
+
+        /**
+         * 清理已过期的标记
+         */
+        void sweep(long now) {
+            Iterator<Mark> iterator = marks.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expireAt <= now) {
+                    iterator.remove();
+                }
+            }
+        }
+
+    }
+
+}
@@ -37,4 +37,14 @@ public @interface RepeatSubmit {
      */
     String message() default "不允许重复提交，请稍候再试";
 
+    /**
+     * 是否先在本节点拦截重复提交，本节点未拦截时仍以 Redis 判断为准
+     */
+    boolean localCache() default true;
+
+    /**
+     * 存放防重标记的 RedisConnectionFactory Bean 名称，默认为空，使用默认的 {@code Redis}
+     */
+    String connectionFactory() default "";
+
 }
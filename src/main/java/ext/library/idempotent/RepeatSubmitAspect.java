@@ -5,10 +5,14 @@ import com.alibaba.fastjson2.JSON;
 import com.mybatisflex.core.util.ArrayUtil;
 import ext.library.exception.ResultException;
 import ext.library.redis.client.Redis;
+import ext.library.redis.script.RedisScripts;
+import ext.library.util.IdUtils;
+import ext.library.util.MethodMetadataCache;
+import ext.library.util.Murmur3Hash128;
 import ext.library.util.ServletUtils;
-import ext.library.util.SpringUtils;
 import ext.library.util.StringUtils;
 import ext.library.util.ThreadLocalUtils;
+import ext.library.web.repeatedly.RepeatedlyReadServletRequestWrapper;
 import ext.library.web.view.Result;
 import ext.library.web.view.ResultEnum;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,20 +22,35 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.lang.NonNull;
-import org.springframework.util.DigestUtils;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.WebUtils;
 
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 防止重复提交 (参考美团 GTIS 防重系统)
+ * <p>防重标记默认写入 {@link Redis} 所在的 Redis，{@link RepeatSubmit#connectionFactory()} 指定连接工厂时写入对应的 Redis，
+ * 同一切面按注解路由，不会对同一请求重复拦截
  *
  * @author Hygge
  * @since 1.0.0
@@ -43,33 +62,68 @@ public class RepeatSubmitAspect {
      */
     private static final String REPEAT_SUBMIT_KEY = "repeat_submit:";
     private static final String KEY = "repeat";
-    private final Redis redis = SpringUtils.getBean(Redis.class);
+    private static final String TOKEN = "repeat_token";
+    private static final String CONNECTION_FACTORY = "repeat_connection_factory";
+    private final StringRedisTemplate stringRedisTemplate;
+    private final BeanFactory beanFactory;
+
+    /**
+     * 指定连接工厂的 StringRedisTemplate，key 为连接工厂 Bean 名称，首次使用时创建
+     */
+    private final Map<String, StringRedisTemplate> templates = new ConcurrentHashMap<>();
+
+    /**
+     * 方法的防重元数据，首次调用时解析
+     */
+    private final MethodMetadataCache<SubmitMetadata> metadataCache = new MethodMetadataCache<>(SubmitMetadata::of);
+
+    /**
+     * 本节点的防重标记
+     */
+    private final LocalSubmitCache localCache = new LocalSubmitCache();
+
+    /**
+     * @param redis       默认的 Redis
+     * @param beanFactory 用于按 {@link RepeatSubmit#connectionFactory()} 查找连接工厂
+     */
+    public RepeatSubmitAspect(Redis redis, BeanFactory beanFactory) {
+        this.stringRedisTemplate = redis.getStringRedisTemplate();
+        this.beanFactory = beanFactory;
+    }
 
     @Before("@annotation(repeatSubmit)")
     public void doBefore(JoinPoint point, @NonNull RepeatSubmit repeatSubmit) throws Throwable {
-        // 如果注解不为 0 则使用注解数值
-        long interval = repeatSubmit.timeUnit().toMillis(repeatSubmit.interval());
-
-        if (interval < 1000) {
-            throw new ResultException("重复提交间隔时间不能小于'1'秒");
-        }
+        SubmitMetadata metadata = metadataCache.get(((MethodSignature) point.getSignature()).getMethod());
         HttpServletRequest request = ServletUtils.getRequest();
-        String nowParams = argsArrayToString(point.getArgs());
 
         // 请求地址（作为存放 cache 的 key 值）
         String url = request.getRequestURI();
 
-        // 唯一值（ip）
-        String submitKey = StringUtils.trimToEmpty(JakartaServletUtil.getClientIP(request));
-        String key = submitKey + ":" + nowParams;
-        submitKey = DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
-        // 唯一标识（指定 key + url + ip）
-        String cacheRepeatKey = REPEAT_SUBMIT_KEY + repeatSubmit.value() + url + submitKey;
-        if (redis.setIfAbsent(cacheRepeatKey, "", Duration.ofMillis(interval))) {
+        // 唯一标识（指定 key + url + 请求指纹）
+        String cacheRepeatKey = metadata.keyPrefix() + url + fingerprint(request, point.getArgs(), metadata);
+        // 写入本次请求的唯一令牌，释放时只删除自己写入的标记
+        String token = IdUtils.getSimpleUUID();
+        // 本节点已受理过相同请求时直接拒绝，不访问 Redis
+        if (metadata.localCache() && !localCache.tryMark(cacheRepeatKey, token, metadata.interval().toMillis())) {
+            throw new ResultException(metadata.message());
+        }
+        StringRedisTemplate template = template(metadata.connectionFactory());
+        Boolean marked;
+        try {
+            marked = template.opsForValue().setIfAbsent(cacheRepeatKey, token, metadata.interval());
+        } catch (RuntimeException e) {
+            // Redis 未记录本次请求，撤销本地标记，避免重试在间隔内被误判为重复提交
+            localCache.release(cacheRepeatKey, token);
+            throw e;
+        }
+        if (Boolean.TRUE.equals(marked)) {
             ThreadLocalUtils.put(KEY, cacheRepeatKey);
+            ThreadLocalUtils.put(TOKEN, token);
+            ThreadLocalUtils.put(CONNECTION_FACTORY, metadata.connectionFactory());
         } else {
-            String message = repeatSubmit.message();
-            throw new ResultException(message);
+            // 其他节点持有标记，本地标记随之撤销，避免其他节点释放后本节点仍然拒绝
+            localCache.release(cacheRepeatKey, token);
+            throw new ResultException(metadata.message());
         }
     }
 
@@ -86,9 +140,9 @@ public class RepeatSubmitAspect {
                 if (r.getCode().equals(ResultEnum.SUCCESS.getCode())) {
                     return;
                 }
-                redis.del(ThreadLocalUtils.get(KEY, String.class));
+                release();
             } finally {
-                ThreadLocalUtils.remove(KEY);
+                clear();
             }
         }
     }
@@ -101,8 +155,85 @@ public class RepeatSubmitAspect {
      */
     @AfterThrowing(value = "@annotation(repeatSubmit)", throwing = "e")
     public void doAfterThrowing(JoinPoint joinPoint, RepeatSubmit repeatSubmit, Exception e) {
-        redis.del(ThreadLocalUtils.get(KEY, String.class));
+        release();
+        clear();
+    }
+
+    /**
+     * 释放防重标记，标记已过期并被其他请求重新写入时不删除
+     */
+    private void release() {
+        String cacheRepeatKey = ThreadLocalUtils.get(KEY, String.class);
+        if (cacheRepeatKey != null) {
+            String token = ThreadLocalUtils.get(TOKEN, String.class);
+            localCache.release(cacheRepeatKey, token);
+            template(ThreadLocalUtils.get(CONNECTION_FACTORY, String.class))
+                    .execute(RedisScripts.COMPARE_AND_DELETE, List.of(cacheRepeatKey), token);
+        }
+    }
+
+    private void clear() {
         ThreadLocalUtils.remove(KEY);
+        ThreadLocalUtils.remove(TOKEN);
+        ThreadLocalUtils.remove(CONNECTION_FACTORY);
+    }
+
+    /**
+     * 连接工厂对应的 StringRedisTemplate，未指定时使用默认的 Redis
+     */
+    private StringRedisTemplate template(String connectionFactory) {
+        if (StringUtils.isEmpty(connectionFactory)) {
+            return stringRedisTemplate;
+        }
+        return templates.computeIfAbsent(connectionFactory,
+                name -> new StringRedisTemplate(beanFactory.getBean(name, RedisConnectionFactory.class)));
+    }
+
+    /**
+     * 请求指纹：ip 与请求参数的 128 位哈希
+     * <p>请求体已被 {@link RepeatedlyReadServletRequestWrapper} 缓存时直接哈希请求参数与请求体字节，
+     * 不再序列化来自请求体、请求参数与路径的方法参数，其余方法参数（如请求头、登录用户）的 JSON 直接流式写入哈希；
+     * 否则退化为哈希方法参数的 JSON
+     */
+    private String fingerprint(HttpServletRequest request, Object[] args, SubmitMetadata metadata) throws IOException {
+        Murmur3Hash128 hash = new Murmur3Hash128();
+        hash.putString(StringUtils.trimToEmpty(JakartaServletUtil.getClientIP(request)));
+        RepeatedlyReadServletRequestWrapper wrapper = WebUtils.getNativeRequest(request, RepeatedlyReadServletRequestWrapper.class);
+        if (wrapper != null) {
+            for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
+                hash.putString(entry.getKey());
+                hash.putInt(entry.getValue().length);
+                for (String value : entry.getValue()) {
+                    hash.putString(value);
+                }
+            }
+            wrapper.hashBody(hash);
+            hashArgs(hash, args, metadata.hashedArgs());
+        } else {
+            hash.putString(argsArrayToString(args));
+        }
+        return hash.toHex();
+    }
+
+    /**
+     * 将方法参数的 JSON 流式写入哈希，以参数下标区分相邻参数
+     *
+     * @param hashedArgs 需要写入的参数下标
+     */
+    private void hashArgs(Murmur3Hash128 hash, Object[] args, int[] hashedArgs) {
+        if (hashedArgs.length == 0) {
+            return;
+        }
+        OutputStream out = hash.asOutputStream();
+        for (int i : hashedArgs) {
+            Object arg = args[i];
+            hash.putInt(i);
+            if (arg == null || isFilterObject(arg)) {
+                hash.putInt(-1);
+            } else {
+                JSON.writeTo(out, arg);
+            }
+        }
     }
 
     /**
@@ -146,4 +277,43 @@ public class RepeatSubmitAspect {
         return o instanceof MultipartFile || o instanceof HttpServletRequest || o instanceof HttpServletResponse || o instanceof BindingResult;
     }
 
+    /**
+     * 防重元数据
+     *
+     * @param interval   防重间隔
+     * @param keyPrefix  防重 key 前缀（含注解指定的 key）
+     * @param message    重复提交的提示语
+     * @param localCache        是否先在本节点拦截
+     * @param connectionFactory 存放防重标记的连接工厂 Bean 名称，为空时使用默认的 Redis
+     * @param hashedArgs        请求体已缓存时仍需写入指纹的参数下标，即不来自请求体、请求参数与路径的参数
+     */
+    private record SubmitMetadata(Duration interval, String keyPrefix, String message, boolean localCache, String connectionFactory,
+                                  int[] hashedArgs) {
+
+        static SubmitMetadata of(Method method) {
+            RepeatSubmit repeatSubmit = method.getAnnotation(RepeatSubmit.class);
+            long interval = repeatSubmit.timeUnit().toMillis(repeatSubmit.interval());
+            if (interval < 1000) {
+                throw new ResultException("重复提交间隔时间不能小于'1'秒");
+            }
+            return new SubmitMetadata(Duration.ofMillis(interval), REPEAT_SUBMIT_KEY + repeatSubmit.value(), repeatSubmit.message(),
+                    repeatSubmit.localCache(), repeatSubmit.connectionFactory(), hashedArgs(method));
+        }
+
+        private static int[] hashedArgs(Method method) {
+            Parameter[] parameters = method.getParameters();
+            int[] indexes = new int[parameters.length];
+            int count = 0;
+            for (int i = 0; i < parameters.length; i++) {
+                Parameter parameter = parameters[i];
+                if (!parameter.isAnnotationPresent(RequestBody.class) && !parameter.isAnnotationPresent(RequestParam.class)
+                        && !parameter.isAnnotationPresent(PathVariable.class)) {
+                    indexes[count++] = i;
+                }
+            }
+            return Arrays.copyOf(indexes, count);
+        }
+
+    }
+
 }
@@ -0,0 +1,136 @@
+package ext.library.limiter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制器
+ * <p>参考 Netflix concurrency-limits 的 Gradient2 与 AIMD 算法，每次请求完成时以其延迟作为样本调整并发限制
+ */
+class AdaptiveConcurrencyLimiter {
+
+    /**
+     * 梯度算法：长期平均延迟的样本窗口
+     */
+    private static final int LONG_WINDOW = 600;
+
+    /**
+     * 梯度算法：允许近期延迟高于长期平均延迟的倍数
+     */
+    private static final double RTT_TOLERANCE = 1.5;
+
+    /**
+     * 梯度算法：新限制的平滑系数
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * AIMD 算法：过载时的收缩比例
+     */
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final ConcurrencyAlgorithm algorithm;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 当前并发限制，仅在锁内修改
+     */
+    private volatile int limit;
+
+    /**
+     * 梯度算法：带小数的并发限制与长期平均延迟（单位：纳秒），仅在锁内访问
+     */
+    private double estimatedLimit;
+    private double longRtt;
+
+    AdaptiveConcurrencyLimiter(ConcurrencyLimit concurrencyLimit) {
+        this.algorithm = concurrencyLimit.algorithm();
+        this.minLimit = Math.max(concurrencyLimit.minLimit(), 1);
+        this.maxLimit = Math.max(concurrencyLimit.maxLimit(), minLimit);
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(concurrencyLimit.latencyThresholdMs());
+        this.limit = Math.clamp(concurrencyLimit.initialLimit(), minLimit, maxLimit);
+        this.estimatedLimit = limit;
+    }
+
+    /**
+     * 获取一个执行名额
+     *
+     * @return 是否获取成功，成功后必须调用 {@link #release(long, boolean)}
+     */
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * 释放执行名额并提交延迟样本
+     *
+     * @param rttNanos 执行耗时（单位：纳秒）
+     * @param sample   是否作为样本调整限制，执行异常时不采样
+     */
+    void release(long rttNanos, boolean sample) {
+        int current = inflight.getAndDecrement();
+        if (!sample) {
+            return;
+        }
+        lock.lock();
+        try {
+            limit = switch (algorithm) {
+                case GRADIENT -> gradient(rttNanos, current);
+                case AIMD -> aimd(rttNanos, current);
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前并发限制
+     *
+     * @return 并发限制
+     */
+    int getLimit() {
+        return limit;
+    }
+
+    private int gradient(long rttNanos, int inflight) {
+        rttNanos = Math.max(rttNanos, 1);
+        longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) / LONG_WINDOW;
+        // 近期延迟远低于长期平均时（如负载回落），让长期平均更快回落
+        if (longRtt / rttNanos > 2) {
+            longRtt *= 0.95;
+        }
+        // 并发未达到限制的一半时不放大限制，避免空闲时限制无限增长
+        if (inflight < estimatedLimit / 2) {
+            return limit;
+        }
+        double gradient = Math.clamp(RTT_TOLERANCE * longRtt / rttNanos, 0.5, 1.0);
+        double queueSize = Math.sqrt(estimatedLimit);
+        double newLimit = estimatedLimit * gradient + queueSize;
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING, minLimit, maxLimit);
+        return (int) estimatedLimit;
+    }
+
+    private int aimd(long rttNanos, int inflight) {
+        if (rttNanos > latencyThresholdNanos) {
+            return Math.max(minLimit, (int) (limit * BACKOFF_RATIO));
+        }
+        if (inflight * 2 >= limit) {
+            return Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+
+}
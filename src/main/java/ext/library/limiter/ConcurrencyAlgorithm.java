@@ -0,0 +1,18 @@
+package ext.library.limiter;
+
+/**
+ * 自适应并发限制算法
+ */
+public enum ConcurrencyAlgorithm {
+
+    /**
+     * 梯度算法：比较长期平均延迟与近期延迟，延迟上升时按比例收缩并发限制，延迟平稳时逐步放大
+     */
+    GRADIENT,
+
+    /**
+     * AIMD（加性增、乘性减）：请求延迟超过阈值时并发限制乘以 0.9，否则在并发接近限制时加 1
+     */
+    AIMD
+
+}
@@ -0,0 +1,49 @@
+package ext.library.limiter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 自适应并发限制
+ * <p>限制方法的同时执行数，并根据观测到的执行延迟自动调整限制；超出限制时抛出 {@link RedisLimitException}
+ * <p>限制在每个节点上按方法独立计算，不访问 Redis
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+@Documented
+public @interface ConcurrencyLimit {
+
+    /**
+     * 调整算法，默认梯度算法
+     */
+    ConcurrencyAlgorithm algorithm() default ConcurrencyAlgorithm.GRADIENT;
+
+    /**
+     * 初始并发限制，默认 20
+     */
+    int initialLimit() default 20;
+
+    /**
+     * 最小并发限制，默认 1
+     */
+    int minLimit() default 1;
+
+    /**
+     * 最大并发限制，默认 200
+     */
+    int maxLimit() default 200;
+
+    /**
+     * AIMD 算法的延迟阈值，单位毫秒，超过视为过载，默认 1000
+     */
+    long latencyThresholdMs() default 1000;
+
+    /**
+     * 超出并发限制的提示语
+     */
+    String msg() default "系统繁忙，请稍后再试。";
+
+}
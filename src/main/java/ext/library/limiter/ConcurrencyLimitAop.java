@@ -0,0 +1,48 @@
+package ext.library.limiter;
+
+import ext.library.util.MethodMetadataCache;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+
+/**
+ * 自适应并发限制 AOP
+ */
+@Slf4j
+@Aspect
+@Component
+public class ConcurrencyLimitAop {
+
+    /**
+     * 每个方法独立的并发限制器
+     */
+    private final MethodMetadataCache<AdaptiveConcurrencyLimiter> limiters =
+            new MethodMetadataCache<>(method -> new AdaptiveConcurrencyLimiter(method.getAnnotation(ConcurrencyLimit.class)));
+
+    @Around("@annotation(concurrencyLimit)")
+    public Object around(ProceedingJoinPoint joinPoint, ConcurrencyLimit concurrencyLimit) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        AdaptiveConcurrencyLimiter limiter = limiters.get(method);
+
+        if (!limiter.tryAcquire()) {
+            log.debug("并发限制={}，方法：{}，获取执行名额失败", limiter.getLimit(), method);
+            throw new RedisLimitException(concurrencyLimit.msg());
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = joinPoint.proceed();
+            success = true;
+            return result;
+        } finally {
+            limiter.release(System.nanoTime() - start, success);
+        }
+    }
+
+}
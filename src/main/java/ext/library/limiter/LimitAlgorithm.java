@@ -0,0 +1,26 @@
+package ext.library.limiter;
+
+/**
+ * 限流算法
+ */
+public enum LimitAlgorithm {
+
+    /**
+     * 固定窗口：窗口内计数，窗口到期后归零
+     * <p>实现最简单，但窗口边界前后的突发最多可放行 2 倍限制
+     */
+    FIXED_WINDOW,
+
+    /**
+     * 滑动窗口日志：统计最近一个窗口内的请求数，限制精确
+     * <p>每次放行记录一条日志，内存占用与限制数成正比
+     */
+    SLIDING_WINDOW,
+
+    /**
+     * GCRA（令牌桶）：请求按固定间隔均匀放行，允许有限突发
+     * <p>每个 key 只存储一个时间戳，内存占用最小
+     */
+    GCRA
+
+}
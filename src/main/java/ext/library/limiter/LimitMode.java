@@ -0,0 +1,23 @@
+package ext.library.limiter;
+
+/**
+ * 限流模式
+ */
+public enum LimitMode {
+
+    /**
+     * 本地限流：在 JVM 内计数，不访问 Redis，限制对每个节点单独生效
+     */
+    LOCAL,
+
+    /**
+     * Redis 限流：所有节点共享 Redis 计数，Redis 不可用时请求失败
+     */
+    REDIS,
+
+    /**
+     * 混合限流：优先使用 Redis 限流，Redis 不可用时降级为本地限流
+     */
+    HYBRID
+
+}
@@ -0,0 +1,94 @@
+package ext.library.limiter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 本地限流器
+ * <p>使用 GCRA（令牌桶）算法，每个 key 只记录一个理论到达时间；key 按哈希分散到多个分段，每个分段独立加锁以降低竞争
+ * <p>分段内 key 数量超过阈值时清理已恢复满额的 key，按调用方（如用户、IP）限流时内存不会无限增长
+ */
+class LocalRateLimiter {
+
+    /**
+     * 分段内触发清理的 key 数量
+     */
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final Stripe[] stripes;
+
+    LocalRateLimiter() {
+        int size = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 4, 16) - 1) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 获取一个许可
+     *
+     * @param key    限流 key
+     * @param limit  窗口内允许的请求数
+     * @param window 窗口时长（单位：秒）
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(String key, long limit, long window) {
+        if (limit <= 0) {
+            return false;
+        }
+        long windowNanos = TimeUnit.SECONDS.toNanos(window);
+        long interval = Math.max(windowNanos / limit, 1);
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        long now = System.nanoTime();
+        stripe.lock.lock();
+        try {
+            Long tat = stripe.tats.get(key);
+            long newTat = (tat == null || tat - now < 0 ? now : tat) + interval;
+            if (newTat - windowNanos - now > 0) {
+                return false;
+            }
+            stripe.tats.put(key, newTat);
+            if (stripe.tats.size() > stripe.sweepAt) {
+                stripe.sweep(now);
+            }
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 理论到达时间（{@link System#nanoTime()}），仅在锁内访问
+         */
+        final Map<String, Long> tats = new HashMap<>();
+
+        /**
+         * 下次触发清理的 key 数量，活跃 key 较多时翻倍，避免每次调用都清理
+         */
+        int sweepAt = SWEEP_THRESHOLD;
+
+        /**
+         * 清理理论到达时间已过去的 key，这些 key 与从未访问时等价
+         */
+        void sweep(long now) {
+            Iterator<Long> iterator = tats.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() - now <= 0) {
+                    iterator.remove();
+                }
+            }
+            sweepAt = Math.max(SWEEP_THRESHOLD, tats.size() * 2);
+        }
+
+    }
+
+}
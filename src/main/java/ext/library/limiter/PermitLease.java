@@ -0,0 +1,163 @@
+package ext.library.limiter;
+
+import ext.library.util.VirtualThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * 限流许可租约
+ * <p>从 Redis 一次性批量领取当前窗口内的许可，在本地通过无锁计数器逐个发放；
+ * 剩余许可低于水位时在虚拟线程中异步续领，窗口切换时丢弃上一窗口未用完的许可
+ * <p>各节点领取但未使用的许可在窗口内无法被其他节点使用，全局精度的损失以 节点数 × 批量大小 为上限
+ */
+@Slf4j
+class PermitLease {
+
+    private final String key;
+    private final int batchSize;
+    private final int lowWater;
+    private final IntFunction<Grant> fetcher;
+
+    /**
+     * 本地剩余许可
+     */
+    private final AtomicLong permits = new AtomicLong();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ReentrantLock fetchLock = new ReentrantLock();
+
+    /**
+     * 当前窗口的结束时间（{@link System#nanoTime()}）
+     */
+    private volatile long windowEnd = System.nanoTime();
+
+    /**
+     * 当前窗口的 Redis 许可是否已领完
+     */
+    private volatile boolean exhausted;
+
+    /**
+     * @param key       限流 key
+     * @param batchSize 每次领取的许可数
+     * @param fetcher   从 Redis 领取许可，参数为期望领取的数量
+     */
+    PermitLease(String key, int batchSize, IntFunction<Grant> fetcher) {
+        this.key = key;
+        this.batchSize = batchSize;
+        this.lowWater = Math.max(1, batchSize / 5);
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * 获取一个许可
+     *
+     * @return 是否获取成功
+     */
+    boolean tryAcquire() {
+        if (System.nanoTime() - windowEnd < 0) {
+            long remaining = take();
+            if (remaining >= 0) {
+                if (remaining <= lowWater) {
+                    refillAsync();
+                }
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+        }
+        return fetchAndAcquire();
+    }
+
+    /**
+     * 扣减一个本地许可
+     *
+     * @return 扣减后的剩余许可，-1 表示本地已无许可
+     */
+    private long take() {
+        long current;
+        do {
+            current = permits.get();
+            if (current <= 0) {
+                return -1;
+            }
+        } while (!permits.compareAndSet(current, current - 1));
+        return current - 1;
+    }
+
+    /**
+     * 是否空闲：窗口已结束且没有正在进行的续领，此时与新建的租约等价，可以丢弃
+     *
+     * @param now 当前时间（{@link System#nanoTime()}）
+     * @return 是否空闲
+     */
+    boolean isIdle(long now) {
+        return now - windowEnd >= 0 && !refilling.get();
+    }
+
+    /**
+     * 本地许可用尽或窗口切换时同步领取，同一时刻只有一个线程访问 Redis
+     */
+    private boolean fetchAndAcquire() {
+        fetchLock.lock();
+        try {
+            if (System.nanoTime() - windowEnd >= 0) {
+                // 窗口切换，上一窗口未用完的许可作废
+                permits.set(0);
+                exhausted = false;
+            } else if (take() >= 0) {
+                return true;
+            } else if (exhausted) {
+                return false;
+            }
+            fetch();
+            return take() >= 0;
+        } finally {
+            fetchLock.unlock();
+        }
+    }
+
+    private void refillAsync() {
+        if (exhausted || !refilling.compareAndSet(false, true)) {
+            return;
+        }
+        VirtualThreadUtils.execute(() -> {
+            fetchLock.lock();
+            try {
+                if (System.nanoTime() - windowEnd < 0 && permits.get() <= lowWater && !exhausted) {
+                    fetch();
+                }
+            } catch (Exception e) {
+                log.error("【限流】异步领取许可失败：{}", key, e);
+            } finally {
+                fetchLock.unlock();
+                refilling.set(false);
+            }
+        });
+    }
+
+    private void fetch() {
+        Grant grant = fetcher.apply(batchSize);
+        windowEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(grant.ttlMs(), 1));
+        exhausted = grant.granted() < batchSize;
+        if (grant.granted() > 0) {
+            permits.addAndGet(grant.granted());
+        }
+        log.debug("【限流】领取许可：{}，数量：{}，窗口剩余：{}ms", key, grant.granted(), grant.ttlMs());
+    }
+
+    /**
+     * 领取结果
+     *
+     * @param granted 领取到的许可数
+     * @param ttlMs   当前窗口剩余时间（单位：毫秒）
+     */
+    record Grant(long granted, long ttlMs) {
+
+    }
+
+}
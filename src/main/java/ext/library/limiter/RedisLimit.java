@@ -12,6 +12,18 @@ public @interface RedisLimit {
      */
     String key() default "";
 
+    /**
+     * 区分调用方的 SpEL 表达式，计算结果拼接在 {@link #key()} 之后，默认为空，所有调用方共享同一个限流 key
+     * <p>可使用方法参数（参数名、#p0、#a0）、#args 与当前请求 #request，例如：{@code #userId}、{@code #request.remoteAddr}
+     * <p>计算结果为 null 或空白时（如未登录的调用方）回退为 {@link #key()}，这些调用方共享同一个限流 key
+     */
+    String keyExpression() default "";
+
+    /**
+     * 限流模式，默认 Redis 限流
+     */
+    LimitMode mode() default LimitMode.REDIS;
+
     /**
      * 最多的访问限制次数
      */
@@ -22,6 +34,20 @@ public @interface RedisLimit {
      */
     long expire() default 60;
 
+    /**
+     * 限流算法，默认固定窗口
+     */
+    LimitAlgorithm algorithm() default LimitAlgorithm.FIXED_WINDOW;
+
+    /**
+     * 租约模式每次从 Redis 领取的许可数，大于 0 时启用，默认 0 不启用
+     * <p>启用后各节点批量领取许可并在本地发放，Redis 调用次数约降为 1 / leaseSize；
+     * 租约模式固定使用固定窗口计数，忽略 {@link #algorithm()}，各节点已领取未使用的许可可能导致全局少放行至多 节点数 × leaseSize 个请求；
+     * 租约按限流 key 在本地保存，数量较多时清理窗口已结束的租约；配合 {@link #keyExpression()} 按调用方限流时，
+     * 每个调用方都会领取一批许可，Redis 调用次数的下降不明显
+     */
+    int leaseSize() default 0;
+
     /**
      * 得不到令牌的提示语
      */
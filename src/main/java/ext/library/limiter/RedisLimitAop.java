@@ -1,6 +1,10 @@
 package ext.library.limiter;
 
 import cn.hutool.core.util.StrUtil;
+import ext.library.redis.script.RedisScripts;
+import ext.library.util.IdUtils;
+import ext.library.util.MethodMetadataCache;
+import ext.library.util.ServletUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
@@ -8,14 +12,23 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Limit AOP
@@ -26,8 +39,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class RedisLimitAop {
 
+    private static final ExpressionParser EXPRESSION_PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 租约数量超过该值时清理窗口已结束的租约
+     */
+    private static final int LEASE_SWEEP_THRESHOLD = 1024;
+
     private final StringRedisTemplate stringRedisTemplate;
 
+    /**
+     * 方法的限流元数据，首次调用时解析
+     */
+    private final MethodMetadataCache<LimitMetadata> metadataCache = new MethodMetadataCache<>(LimitMetadata::of);
+
+    /**
+     * 本地限流器，用于本地模式与混合模式降级
+     */
+    private final LocalRateLimiter localRateLimiter = new LocalRateLimiter();
+
+    /**
+     * 租约模式的本地许可，key 为限流 key
+     */
+    private final Map<String, PermitLease> leases = new ConcurrentHashMap<>();
+    private final ReentrantLock leaseSweepLock = new ReentrantLock();
+
+    /**
+     * 下次触发清理的租约数量，活跃租约较多时翻倍，避免每次调用都清理
+     */
+    private volatile int leaseSweepAt = LEASE_SWEEP_THRESHOLD;
+
 
     @Pointcut("@annotation(ext.library.limiter.RedisLimit)")
     private void check() {
@@ -36,63 +78,142 @@ public class RedisLimitAop {
 
     @Before("check()")
     public void before(JoinPoint joinPoint) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-
-        //拿到 RedisLimit 注解，如果存在则说明需要限流
-        RedisLimit redisLimit = method.getAnnotation(RedisLimit.class);
-
-        if (redisLimit != null) {
-            //获取 redis 的 key
-            String key = redisLimit.key();
-            String className = method.getDeclaringClass().getName();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        LimitMetadata metadata = metadataCache.get(method);
+
+        String limitKey = limitKey(metadata, method, joinPoint.getArgs());
+
+        log.debug("限流 key={}", limitKey);
+
+        boolean allowed = switch (metadata.annotation().mode()) {
+            case LOCAL -> localRateLimiter.tryAcquire(limitKey, metadata.limit(), metadata.expire());
+            case REDIS -> tryAcquire(limitKey, metadata);
+            case HYBRID -> {
+                try {
+                    yield tryAcquire(limitKey, metadata);
+                } catch (DataAccessException e) {
+                    log.warn("Redis 限流不可用，降级为本地限流，key={}：{}", limitKey, e.getMessage());
+                    yield localRateLimiter.tryAcquire(limitKey, metadata.limit(), metadata.expire());
+                }
+            }
+        };
 
-            String limitKey = key + className + method.getName();
+        if (!allowed) {
+            log.debug("令牌桶={}，获取令牌失败", limitKey);
+            throw new RedisLimitException(metadata.annotation().msg());
+        }
+    }
 
-            log.info(limitKey);
+    /**
+     * 计算限流 key，配置了 key 表达式时拼接表达式的计算结果；计算结果为 null 或空白时回退为方法级别的 key
+     */
+    private String limitKey(LimitMetadata metadata, Method method, Object[] args) {
+        if (metadata.keyExpression() == null) {
+            return metadata.key();
+        }
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(null, method, args, PARAMETER_NAME_DISCOVERER);
+        context.setVariable("args", args);
+        context.setVariable("request", ServletUtils.getRequest());
+        String caller = metadata.keyExpression().getValue(context, String.class);
+        if (StrUtil.isBlank(caller)) {
+            log.debug("限流 key 表达式计算结果为空，使用方法级别的 key={}", metadata.key());
+            return metadata.key();
+        }
+        return metadata.key() + ":" + caller;
+    }
 
-            if (StrUtil.isEmpty(key)) {
-                throw new RedisLimitException("key cannot be null");
+    /**
+     * 通过 Redis 获取一个许可
+     */
+    private boolean tryAcquire(String limitKey, LimitMetadata metadata) {
+        if (metadata.annotation().leaseSize() > 0) {
+            PermitLease lease = leases.computeIfAbsent(limitKey, k -> new PermitLease(k, metadata.annotation().leaseSize(),
+                    batch -> fetch(k, metadata, batch)));
+            if (leases.size() > leaseSweepAt) {
+                sweepLeases();
             }
+            return lease.tryAcquire();
+        }
 
-            long limit = redisLimit.permitsPerSecond();
-
-            long expire = redisLimit.expire();
-
-            List<String> keys = new ArrayList<>();
-            keys.add(key);
-            String luaScript = buildLuaScript();
-            RedisScript<Long> redisScript = new DefaultRedisScript<>(luaScript, Long.class);
+        // 滑动窗口日志需要请求唯一标识作为 ZSET 成员，其他算法忽略该参数
+        String requestId = metadata.slidingWindow() ? IdUtils.getSimpleUUID() : "";
+        Long count = stringRedisTemplate.execute(metadata.script(), List.of(limitKey), metadata.limitArg(), metadata.windowArg(), requestId);
 
-            Long count = stringRedisTemplate.execute(redisScript, keys, String.valueOf(limit), String.valueOf(expire));
+        log.debug("Access try count is {} for key={}", count, limitKey);
 
-            log.info("Access try count is {} for key={}", count, key);
+        return count == null || count != 0;
+    }
 
-            if (count != null && count == 0) {
-                log.debug("令牌桶={}，获取令牌失败", key);
-                throw new RedisLimitException(redisLimit.msg());
+    /**
+     * 清理窗口已结束的租约，按调用方（keyExpression）限流时租约数量不会无限增长
+     * <p>被清理的租约若仍在使用，下次调用会重新创建，许可总数仍由 Redis 计数约束
+     */
+    private void sweepLeases() {
+        if (!leaseSweepLock.tryLock()) {
+            return;
+        }
+        try {
+            if (leases.size() <= leaseSweepAt) {
+                return;
             }
+            long now = System.nanoTime();
+            leases.values().removeIf(lease -> lease.isIdle(now));
+            leaseSweepAt = Math.max(LEASE_SWEEP_THRESHOLD, leases.size() * 2);
+        } finally {
+            leaseSweepLock.unlock();
         }
+    }
 
+    /**
+     * 从 Redis 批量领取许可
+     */
+    private PermitLease.Grant fetch(String key, LimitMetadata metadata, int batch) {
+        List<?> result = stringRedisTemplate.execute(RedisScripts.RATE_LIMIT_LEASE, List.of(key), metadata.limitArg(),
+                metadata.windowArg(), String.valueOf(batch));
+        if (result == null || result.size() < 2) {
+            return new PermitLease.Grant(0, 0);
+        }
+        return new PermitLease.Grant(((Number) result.get(0)).longValue(), ((Number) result.get(1)).longValue());
     }
 
     /**
-     * 构建 redis lua 脚本
+     * 限流元数据
      *
-     * @return {@link String}
+     * @param annotation    限流注解
+     * @param key           限流 key
+     * @param keyExpression 已解析的 key 表达式，未配置时为 null
+     * @param limit         窗口内允许的请求数
+     * @param expire        窗口时长（单位：秒）
+     * @param limitArg      脚本参数：窗口内允许的请求数
+     * @param windowArg     脚本参数：窗口时长（单位：毫秒）
+     * @param script        限流算法对应的脚本
+     * @param slidingWindow 是否为滑动窗口日志算法
      */
-    private String buildLuaScript() {
-        return """
-                local key = KEYS[1]
-                local limit = tonumber(ARGV[1])
-                local curentLimit = tonumber(redis.call('get', key) or "0")
-                if curentLimit + 1 > limit then
-                 return 0
-                else
-                 redis.call("INCRBY", key, 1)
-                 redis.call("EXPIRE", key, ARGV[2])
-                 return curentLimit + 1
-                end
-                 """;
+    private record LimitMetadata(RedisLimit annotation, String key, Expression keyExpression, long limit, long expire,
+                                 String limitArg, String windowArg, RedisScript<Long> script, boolean slidingWindow) {
+
+        static LimitMetadata of(Method method) {
+            RedisLimit redisLimit = method.getAnnotation(RedisLimit.class);
+            String key = redisLimit.key();
+            if (StrUtil.isEmpty(key)) {
+                throw new RedisLimitException("key cannot be null");
+            }
+            Expression keyExpression = StrUtil.isEmpty(redisLimit.keyExpression()) ? null
+                    : EXPRESSION_PARSER.parseExpression(redisLimit.keyExpression());
+            RedisScript<Long> script = switch (redisLimit.algorithm()) {
+                case FIXED_WINDOW -> RedisScripts.RATE_LIMIT_FIXED_WINDOW;
+                case SLIDING_WINDOW -> RedisScripts.RATE_LIMIT_SLIDING_WINDOW;
+                case GCRA -> RedisScripts.RATE_LIMIT_GCRA;
+            };
+            long limit = redisLimit.permitsPerSecond();
+            long expire = redisLimit.expire();
+            if (limit <= 0 || expire <= 0) {
+                throw new RedisLimitException("permitsPerSecond and expire must be positive");
+            }
+            return new LimitMetadata(redisLimit, key, keyExpression, limit, expire, String.valueOf(limit),
+                    String.valueOf(TimeUnit.SECONDS.toMillis(expire)), script, redisLimit.algorithm() == LimitAlgorithm.SLIDING_WINDOW);
+        }
+
     }
+
 }
@@ -1,29 +1,75 @@
 package ext.library.redis.client;
 
+import ext.library.redis.script.RedisScripts;
 import ext.library.util.SpringUtils;
-import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.util.CollectionUtils;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * 延迟队列
+ * <p>由 {@code RedisAutoConfig} 创建：默认 Bean 使用主 StringRedisTemplate，另为主连接工厂以外的每个 RedisConnectionFactory Bean
+ * 创建名为 {@code <连接工厂 Bean 名称>DelayQueue} 的实例，可将队列流量指向独立的 Redis
+ * <p>保留的静态方法 {@link #push(String, String, long, TimeUnit)}、{@link #delete(String, String)}、{@link #popOne(String)}
+ * 转发到默认 Bean，仅用于兼容，新代码应注入实例后调用 {@link #offer(String, String, long, TimeUnit)} 等实例方法
  *
  * @author zlh
  * @since 2024/02/20
  */
 @Slf4j
-@Data
-@AllArgsConstructor
 public class DelayQueue {
-    private static final Long DELETE_SUCCESS = 1L;
 
-    private static final StringRedisTemplate STRING_REDIS_TEMPLATE = SpringUtils.getBean(StringRedisTemplate.class);
+    /**
+     * 处理中 ZSET 的 key 后缀，分数为可见性截止时间
+     */
+    static final String PROCESSING_SUFFIX = ":processing";
+
+    /**
+     * 投递次数 Hash 的 key 后缀
+     */
+    static final String RETRIES_SUFFIX = ":retries";
+
+    /**
+     * 死信 ZSET 的 key 后缀，分数为移入死信的时间
+     */
+    static final String DEAD_LETTER_SUFFIX = ":dead";
+
+    /**
+     * 单次回收可见性超时元素的最大数量
+     */
+    static final int REAP_BATCH = 100;
+
+    /**
+     * 本地时间轮处理的最长延迟（单位：毫秒），更长的延迟只由 Redis 轮询处理
+     */
+    private static final long LOCAL_MAX_DELAY_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * 本地定时的元素在 Redis 中推迟可见的时间（单位：毫秒），本节点宕机时由其他消费者在推迟后接管
+     */
+    private static final long LOCAL_GRACE_MS = TimeUnit.SECONDS.toMillis(5);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 本节点至多一次投递的消费者，key 为队列 key
+     */
+    private final Map<String, DelayQueueConsumer<String>> localConsumers = new ConcurrentHashMap<>();
+
+    /**
+     * @param stringRedisTemplate 队列所在 Redis 的 StringRedisTemplate
+     */
+    public DelayQueue(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
 
     /**
      * 推
@@ -32,10 +78,11 @@ public class DelayQueue {
      * @param value     价值
      * @param timeUnit  时间单位
      * @param delayTime 延迟时间
+     * @deprecated 注入 DelayQueue 后使用 {@link #offer(String, String, long, TimeUnit)}
      */
+    @Deprecated
     public static void push(String key, String value, long delayTime, TimeUnit timeUnit) {
-        // 保存数据至缓存
-        STRING_REDIS_TEMPLATE.opsForZSet().add(key, value, System.currentTimeMillis() + timeUnit.toMillis(delayTime));
+        Default.INSTANCE.offer(key, value, delayTime, timeUnit);
     }
 
     /**
@@ -43,9 +90,11 @@ public class DelayQueue {
      *
      * @param key   钥匙
      * @param value 价值
+     * @deprecated 注入 DelayQueue 后使用 {@link #remove(String, String)}
      */
+    @Deprecated
     public static void delete(String key, String value) {
-        STRING_REDIS_TEMPLATE.opsForZSet().remove(key, value);
+        Default.INSTANCE.remove(key, value);
     }
 
     /**
@@ -53,19 +102,240 @@ public class DelayQueue {
      *
      * @param key 钥匙
      * @return {@link String}
+     * @deprecated 注入 DelayQueue 后使用 {@link #poll(String)}
+     */
+    @Deprecated
+    public static String popOne(String key) {
+        return Default.INSTANCE.poll(key);
+    }
+
+    /**
+     * 推
+     * <p>本节点订阅了该队列且延迟不超过 30 秒时，元素同时加入本地时间轮，到期时直接从 Redis 抢占并交给本地消费者，
+     * 无需等待轮询；Redis 中的元素推迟 5 秒可见，作为本节点宕机时的兜底
+     *
+     * @param key       钥匙
+     * @param value     价值
+     * @param timeUnit  时间单位
+     * @param delayTime 延迟时间
+     */
+    public void offer(String key, String value, long delayTime, TimeUnit timeUnit) {
+        long delayMs = timeUnit.toMillis(delayTime);
+        DelayQueueConsumer<String> consumer = localConsumers.get(key);
+        if (consumer != null && consumer.isRunning() && delayMs <= LOCAL_MAX_DELAY_MS) {
+            stringRedisTemplate.opsForZSet().add(key, value, System.currentTimeMillis() + delayMs + LOCAL_GRACE_MS);
+            LocalTimer.TIMING_WHEEL.schedule(() -> fireLocal(key, value), delayMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+        // 保存数据至缓存
+        stringRedisTemplate.opsForZSet().add(key, value, System.currentTimeMillis() + delayMs);
+    }
+
+    /**
+     * 本地定时到期：从 Redis 抢占元素并交给本地消费者，元素已被删除或被其他消费者弹出时忽略
      */
-    public static synchronized String popOne(String key) {
-        Set<String> sets = STRING_REDIS_TEMPLATE.opsForZSet().rangeByScore(key, 0, System.currentTimeMillis(), 0, 1);
-        if (CollectionUtils.isEmpty(sets)) {
-            return null;
+    private void fireLocal(String key, String value) {
+        DelayQueueConsumer<String> consumer = localConsumers.get(key);
+        if (consumer == null || !consumer.isRunning()) {
+            // 本地消费者已停止，由 Redis 轮询兜底
+            return;
         }
+        if (Objects.equals(stringRedisTemplate.opsForZSet().remove(key, value), 1L)) {
+            consumer.dispatch(value);
+        }
+    }
+
+    /**
+     * 删除
+     *
+     * @param key   钥匙
+     * @param value 价值
+     */
+    public void remove(String key, String value) {
+        stringRedisTemplate.opsForZSet().remove(key, value);
+    }
+
+    /**
+     * 弹出一个
+     *
+     * @param key 钥匙
+     * @return {@link String}
+     */
+    public String poll(String key) {
+        List<String> values = popBatch(key, 1);
+        return values.isEmpty() ? null : values.getFirst();
+    }
 
-        for (String val : sets) {
-            if (Objects.equals(STRING_REDIS_TEMPLATE.opsForZSet().remove(key, val), DELETE_SUCCESS)) {
-                // 删除成功，表示抢占到
-                return val;
+    /**
+     * 批量弹出到期元素
+     * <p>查询与删除在脚本内原子执行，一次往返即可抢占至多 max 个到期元素，多个消费者（包括其他节点）不会弹出同一元素
+     *
+     * @param key 钥匙
+     * @param max 最多弹出的数量
+     * @return 按到期时间排序的元素，无到期元素时为空列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> popBatch(String key, int max) {
+        List<String> values = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_POP, List.of(key),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(max));
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * 批量领取到期元素（至少一次投递）
+     * <p>元素被原子移入处理中集合，调用方处理成功后须调用 {@link #ack(String, String)} 确认；
+     * 可见性超时前未确认的元素将由 {@link #reap(String, int)} 重新入队，达到最大投递次数后移入死信
+     *
+     * @param key               钥匙
+     * @param max               最多领取的数量
+     * @param visibilityTimeout 可见性超时时间
+     * @return 按到期时间排序的元素，无到期元素时为空列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<String> reserveBatch(String key, int max, Duration visibilityTimeout) {
+        long now = System.currentTimeMillis();
+        List<String> values = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_RESERVE, List.of(key, companionKey(key, PROCESSING_SUFFIX)),
+                String.valueOf(now), String.valueOf(max), String.valueOf(now + visibilityTimeout.toMillis()));
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * 确认元素处理完成
+     *
+     * @param key   钥匙
+     * @param value 价值
+     * @return 是否确认成功，false 表示元素已因可见性超时重新入队
+     */
+    public boolean ack(String key, String value) {
+        Long removed = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_ACK,
+                List.of(companionKey(key, PROCESSING_SUFFIX), companionKey(key, RETRIES_SUFFIX)), value);
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * 回收可见性超时的元素：投递次数未达上限的重新入队，达到上限的移入死信 {@link #deadLetterKey(String)}
+     *
+     * @param key         钥匙
+     * @param maxAttempts 最大投递次数
+     * @return 重新入队与移入死信的元素总数
+     */
+    public long reap(String key, int maxAttempts) {
+        List<?> result = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_REAP,
+                List.of(key, companionKey(key, PROCESSING_SUFFIX), companionKey(key, RETRIES_SUFFIX), deadLetterKey(key)),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(maxAttempts), String.valueOf(REAP_BATCH));
+        if (result == null || result.size() < 2) {
+            return 0;
+        }
+        long requeued = ((Number) result.get(0)).longValue();
+        long dead = ((Number) result.get(1)).longValue();
+        if (dead > 0) {
+            log.warn("【延迟队列】{} 个元素超过最大投递次数 {}，已移入死信：{}", dead, maxAttempts, deadLetterKey(key));
+        }
+        return requeued + dead;
+    }
+
+    /**
+     * 死信 key，分数为移入死信的时间
+     *
+     * @param key 钥匙
+     * @return 死信 key
+     */
+    public String deadLetterKey(String key) {
+        return companionKey(key, DEAD_LETTER_SUFFIX);
+    }
+
+    /**
+     * 队列的附属 key（处理中、投递次数、死信），与队列 key 位于 Redis Cluster 的同一个 slot，可在同一脚本中访问
+     * <p>队列 key 已包含 hash tag 时直接追加后缀，否则将队列 key 整体作为 hash tag：{@code {key}:processing}
+     *
+     * @param key    队列 key
+     * @param suffix 后缀
+     * @return 附属 key
+     */
+    static String companionKey(String key, String suffix) {
+        int start = key.indexOf('{');
+        if (start >= 0) {
+            int end = key.indexOf('}', start + 1);
+            if (end > start + 1) {
+                return key + suffix;
             }
         }
-        return null;
+        return "{" + key + "}" + suffix;
     }
+
+    /**
+     * 创建分片延迟队列，同一主题的消息按 ID 分散到多个分片，适用于单个 ZSET 成为热点 key 的场景
+     *
+     * @param topic  主题
+     * @param shards 分片数，创建后不应修改
+     * @return 分片延迟队列
+     */
+    public ShardedDelayQueue sharded(String topic, int shards) {
+        return new ShardedDelayQueue(stringRedisTemplate, topic, shards);
+    }
+
+    /**
+     * 订阅延迟队列，在虚拟线程中消费到期元素
+     *
+     * @param key     钥匙
+     * @param handler 元素处理
+     * @return 消费者，调用 {@link DelayQueueConsumer#close()} 停止消费
+     */
+    public DelayQueueConsumer<String> subscribe(String key, Consumer<String> handler) {
+        return subscribe(key, DelayQueueConsumer.DEFAULT_CONCURRENCY, handler);
+    }
+
+    /**
+     * 订阅延迟队列，在虚拟线程中消费到期元素
+     * <p>订阅后本节点推送的短延迟元素由本地时间轮定时，到期即交给该消费者处理
+     *
+     * @param key         钥匙
+     * @param concurrency 同时处理的最大元素数
+     * @param handler     元素处理
+     * @return 消费者，调用 {@link DelayQueueConsumer#close()} 停止消费
+     */
+    public DelayQueueConsumer<String> subscribe(String key, int concurrency, Consumer<String> handler) {
+        DelayQueueConsumer<String> consumer = new DelayQueueConsumer<>(key, concurrency, max -> popBatch(key, max), handler);
+        consumer.start();
+        localConsumers.put(key, consumer);
+        return consumer;
+    }
+
+    /**
+     * 订阅延迟队列（至少一次投递），在虚拟线程中消费到期元素
+     * <p>处理正常返回后自动确认；处理抛出异常或节点宕机时，元素在可见性超时后重新投递，达到最大投递次数后移入死信
+     *
+     * @param key               钥匙
+     * @param concurrency       同时处理的最大元素数
+     * @param visibilityTimeout 可见性超时时间，应大于单个元素的最长处理时间
+     * @param maxAttempts       最大投递次数
+     * @param handler           元素处理，须幂等
+     * @return 消费者，调用 {@link DelayQueueConsumer#close()} 停止消费
+     */
+    public DelayQueueConsumer<String> subscribe(String key, int concurrency, Duration visibilityTimeout, int maxAttempts,
+                                               Consumer<String> handler) {
+        DelayQueueConsumer<String> consumer = new DelayQueueConsumer<>(key, concurrency, max -> reserveBatch(key, max, visibilityTimeout), handler,
+                value -> ack(key, value), () -> reap(key, maxAttempts), Math.max(visibilityTimeout.toMillis() / 2, 100));
+        consumer.start();
+        return consumer;
+    }
+
+    /**
+     * 默认 Bean，首次调用静态方法时查找
+     */
+    private static final class Default {
+
+        static final DelayQueue INSTANCE = SpringUtils.getBean(DelayQueue.class);
+
+    }
+
+    /**
+     * 本地时间轮，首次使用时创建
+     */
+    private static final class LocalTimer {
+
+        static final TimingWheel TIMING_WHEEL = new TimingWheel(1, 512);
+
+    }
+
 }
@@ -0,0 +1,194 @@
+package ext.library.redis.client;
+
+import ext.library.util.VirtualThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * <h2>延迟队列消费者</h2>
+ * 由一个虚拟线程轮询拉取到期元素，每个元素在独立的虚拟线程中处理，同时处理的元素数不超过并发数
+ * <p>轮询间隔自适应：拉满一批时立即继续拉取；队列为空时从 {@link #MIN_IDLE_MS} 起逐次翻倍休眠，至多 {@link #MAX_IDLE_MS}
+ * <p>至少一次投递模式下，处理成功后确认元素，并定期回收可见性超时的元素
+ *
+ * @param <T> 元素类型
+ */
+@Slf4j
+public class DelayQueueConsumer<T> implements AutoCloseable {
+
+    /**
+     * 默认并发数
+     */
+    static final int DEFAULT_CONCURRENCY = 16;
+
+    /**
+     * 空闲时最短轮询间隔（单位：毫秒）
+     */
+    private static final long MIN_IDLE_MS = 10;
+
+    /**
+     * 空闲时最长轮询间隔（单位：毫秒）
+     */
+    private static final long MAX_IDLE_MS = 1000;
+
+    private final String key;
+    private final IntFunction<List<T>> poller;
+    private final Consumer<T> handler;
+    private final Semaphore permits;
+
+    /**
+     * 至少一次投递：处理成功后的确认，非该模式时为 null
+     */
+    private final Consumer<T> acker;
+
+    /**
+     * 至少一次投递：回收可见性超时的元素，非该模式时为 null
+     */
+    private final Runnable reaper;
+    private final long reapIntervalMs;
+
+    private volatile boolean running;
+    private Future<?> pollTask;
+
+    /**
+     * @param key         队列 key
+     * @param concurrency 同时处理的最大元素数
+     * @param poller      批量弹出到期元素，参数为最多弹出的数量
+     * @param handler     元素处理
+     */
+    DelayQueueConsumer(String key, int concurrency, IntFunction<List<T>> poller, Consumer<T> handler) {
+        this(key, concurrency, poller, handler, null, null, 0);
+    }
+
+    /**
+     * @param key            队列 key
+     * @param concurrency    同时处理的最大元素数
+     * @param poller         批量领取到期元素，参数为最多领取的数量
+     * @param handler        元素处理
+     * @param acker          处理成功后的确认
+     * @param reaper         回收可见性超时的元素
+     * @param reapIntervalMs 回收间隔（单位：毫秒）
+     */
+    DelayQueueConsumer(String key, int concurrency, IntFunction<List<T>> poller, Consumer<T> handler,
+                       Consumer<T> acker, Runnable reaper, long reapIntervalMs) {
+        this.key = key;
+        this.acker = acker;
+        this.reaper = reaper;
+        this.reapIntervalMs = reapIntervalMs;
+        this.poller = poller;
+        this.handler = handler;
+        this.permits = new Semaphore(Math.max(concurrency, 1));
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        pollTask = VirtualThreadUtils.submit(this::poll);
+    }
+
+    /**
+     * 停止拉取，已拉取的元素继续处理完成
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (pollTask != null) {
+            pollTask.cancel(true);
+            pollTask = null;
+        }
+    }
+
+    /**
+     * 是否正在消费
+     *
+     * @return 是否正在消费
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll() {
+        long idle = MIN_IDLE_MS;
+        long nextReap = System.currentTimeMillis();
+        while (running) {
+            try {
+                if (reaper != null && System.currentTimeMillis() >= nextReap) {
+                    reapSafely();
+                    nextReap = System.currentTimeMillis() + reapIntervalMs;
+                }
+                // 只拉取有空闲处理能力的数量，避免元素离开 Redis 后长时间积压在本地
+                permits.acquire();
+                int max = 1 + permits.drainPermits();
+                List<T> values = pollSafely(max);
+                permits.release(max - values.size());
+                for (T value : values) {
+                    VirtualThreadUtils.execute(() -> handle(value));
+                }
+
+                if (values.size() == max) {
+                    // 积压，立即继续拉取
+                    idle = MIN_IDLE_MS;
+                    continue;
+                }
+                Thread.sleep(idle);
+                idle = values.isEmpty() ? Math.min(idle * 2, MAX_IDLE_MS) : MIN_IDLE_MS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<T> pollSafely(int max) {
+        try {
+            return poller.apply(max);
+        } catch (Exception e) {
+            log.error("【延迟队列】拉取失败：{}", key, e);
+            return List.of();
+        }
+    }
+
+    /**
+     * 交给本消费者处理（如本地时间轮到期的元素），无空闲处理能力时等待
+     *
+     * @param value 元素
+     */
+    void dispatch(T value) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("【延迟队列】等待处理被中断：{}，元素：{}", key, value);
+            return;
+        }
+        VirtualThreadUtils.execute(() -> handle(value));
+    }
+
+    private void reapSafely() {
+        try {
+            reaper.run();
+        } catch (Exception e) {
+            log.error("【延迟队列】回收超时元素失败：{}", key, e);
+        }
+    }
+
+    private void handle(T value) {
+        try {
+            handler.accept(value);
+            if (acker != null) {
+                acker.accept(value);
+            }
+        } catch (Exception e) {
+            log.error("【延迟队列】处理失败：{}，元素：{}", key, value, e);
+        } finally {
+            permits.release();
+        }
+    }
+
+}
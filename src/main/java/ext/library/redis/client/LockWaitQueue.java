@@ -0,0 +1,112 @@
+package ext.library.redis.client;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁本地等待队列
+ * <p>同一 JVM 内等待同一把锁的线程在本地按 key 排队挂起，收到 Redis 锁释放通知后只唤醒其中一个去重试加锁，
+ * 避免所有等待者轮询 Redis，使轮询流量从 O(等待者) 降为 O(节点)
+ */
+class LockWaitQueue implements MessageListener {
+
+    /**
+     * 等待队列，key 为 Redis 锁 key
+     */
+    private final Map<String, Waiters> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已订阅锁释放通知
+     */
+    private volatile boolean subscribed;
+
+    boolean isSubscribed() {
+        return subscribed;
+    }
+
+    void setSubscribed(boolean subscribed) {
+        this.subscribed = subscribed;
+    }
+
+    /**
+     * 加入本地等待队列，须在尝试加锁之前调用，使加锁失败到挂起之间到达的锁释放通知保留为待领取的许可
+     *
+     * @param lockKey Redis 锁 key
+     * @return 等待队列，用于 {@link #await(Waiters, long)} 与 {@link #leave(String, Waiters)}
+     */
+    Waiters join(String lockKey) {
+        return queues.compute(lockKey, (key, w) -> {
+            if (w == null) {
+                w = new Waiters();
+            }
+            w.count++;
+            return w;
+        });
+    }
+
+    /**
+     * 在本地队列中等待锁释放通知，已有待领取的许可时立即返回
+     *
+     * @param waiters   {@link #join(String)} 返回的等待队列
+     * @param timeoutMs 最长等待时间（单位：毫秒）
+     * @return 是否被唤醒（false 表示等待超时）
+     * @throws InterruptedException 等待时被中断
+     */
+    boolean await(Waiters waiters, long timeoutMs) throws InterruptedException {
+        return waiters.semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 离开本地等待队列，加锁成功或放弃等待时调用
+     *
+     * @param lockKey Redis 锁 key
+     * @param waiters {@link #join(String)} 返回的等待队列
+     */
+    void leave(String lockKey, Waiters waiters) {
+        queues.computeIfPresent(lockKey, (key, w) -> w == waiters && --w.count == 0 ? null : w);
+    }
+
+    /**
+     * 唤醒一个等待该锁的线程
+     *
+     * @param lockKey Redis 锁 key
+     */
+    void signal(String lockKey) {
+        queues.computeIfPresent(lockKey, (key, w) -> {
+            if (w.semaphore.availablePermits() == 0) {
+                w.semaphore.release();
+            }
+            return w;
+        });
+    }
+
+    /**
+     * 收到锁释放通知，消息体为被释放的 Redis 锁 key
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        signal(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    static final class Waiters {
+
+        /**
+         * 公平信号量，按等待顺序逐个唤醒
+         */
+        final Semaphore semaphore = new Semaphore(0, true);
+
+        /**
+         * 等待者数量，仅在 {@link ConcurrentHashMap#compute} 内修改
+         */
+        int count;
+
+    }
+
+}
@@ -0,0 +1,103 @@
+package ext.library.redis.client;
+
+import ext.library.redis.dto.LockInfo;
+import ext.library.util.VirtualThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Predicate;
+
+/**
+ * 分布式锁看门狗
+ * <p>为每把启用看门狗的锁在虚拟线程中定时续期，每隔 1/3 超时时间续期一次，直至取消或续期失败（锁已不再由当前持有者持有）
+ */
+@Slf4j
+class LockWatchdog {
+
+    /**
+     * 续期任务，key 为锁 key + 持有者标识
+     */
+    private final Map<String, Future<?>> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * 开始续期
+     *
+     * @param lockInfo 加锁成功的锁对象
+     * @param renewer  续期操作，返回 false 时停止续期
+     */
+    void watch(LockInfo lockInfo, Predicate<LockInfo> renewer) {
+        RenewTask renewTask = new RenewTask(taskKey(lockInfo), lockInfo, renewer);
+        // 可重入加锁时沿用仍在运行的续期任务；先发布再启动，任务结束时只移除自己，不会误删同一持有者后续加锁的续期任务
+        Future<?> current = tasks.compute(renewTask.taskKey,
+                (taskKey, existing) -> existing != null && !existing.isDone() ? existing : renewTask.future);
+        if (current == renewTask.future) {
+            VirtualThreadUtils.execute(renewTask.future);
+        }
+    }
+
+    /**
+     * 停止续期
+     *
+     * @param lockInfo 加锁时返回的锁对象
+     */
+    void cancel(LockInfo lockInfo) {
+        Future<?> task = tasks.remove(taskKey(lockInfo));
+        if (task != null) {
+            task.cancel(true);
+        }
+    }
+
+    private static String taskKey(LockInfo lockInfo) {
+        return lockInfo.getLockKey() + "#" + lockInfo.getOwner();
+    }
+
+    private static boolean renew(LockInfo lockInfo, Predicate<LockInfo> renewer) {
+        try {
+            return renewer.test(lockInfo);
+        } catch (Exception e) {
+            // 网络抖动等临时异常不终止续期，下一周期重试
+            log.error("【redis 分布式锁】续期异常", e);
+            return true;
+        }
+    }
+
+    /**
+     * 续期任务，持有自身的 Future 以便结束时按值移除
+     */
+    private final class RenewTask implements Runnable {
+
+        final String taskKey;
+        final LockInfo lockInfo;
+        final Predicate<LockInfo> renewer;
+        final FutureTask<Void> future = new FutureTask<>(this, null);
+
+        RenewTask(String taskKey, LockInfo lockInfo, Predicate<LockInfo> renewer) {
+            this.taskKey = taskKey;
+            this.lockInfo = lockInfo;
+            this.renewer = renewer;
+        }
+
+        @Override
+        public void run() {
+            long interval = Math.max(lockInfo.getLockTimeoutMs() / 3, 1);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    Thread.sleep(interval);
+                    if (!renew(lockInfo, renewer)) {
+                        log.warn("【redis 分布式锁】续期失败，锁已失效：{}", lockInfo.getLockKey());
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                tasks.remove(taskKey, future);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,271 @@
+package ext.library.redis.client;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * <h2>Redis 近端缓存</h2>
+ * 在 JVM 内缓存 {@link Redis} 的读取结果（GET、HGET），按容量（LRU）与存活时间淘汰
+ * <p>key 按哈希分散到多个分段，每个分段独立加锁、独立维护 LRU 与失效版本号，命中时只竞争所在分段的锁
+ * <p>对象只缓存序列化后的字节，由 {@link Redis} 在每次命中时反序列化，调用方修改返回的对象不会污染缓存
+ * <p>通过 {@link Redis} 写入时会在本地失效并向失效频道发布 key，其他节点收到后失效本地缓存；
+ * 绕过 {@link Redis} 的写入无法感知，其陈旧时间以存活时间为上限
+ */
+public class NearCache implements MessageListener {
+
+    /**
+     * 失效消息中多个 key 的分隔符
+     */
+    static final String KEY_DELIMITER = "\n";
+
+    /**
+     * 空值占位，用于缓存不存在的 key
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    private final long ttlNanos;
+    private final List<String> keyPrefixes;
+    private final Stripe[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maximumSize 最大缓存 Redis key 数量
+     * @param ttl         缓存存活时间
+     * @param keyPrefixes 需要缓存的 key 前缀，为空时缓存所有 key
+     */
+    public NearCache(int maximumSize, Duration ttl, List<String> keyPrefixes) {
+        this.ttlNanos = ttl.toNanos();
+        this.keyPrefixes = keyPrefixes == null ? List.of() : List.copyOf(keyPrefixes);
+        int size = Integer.highestOneBit(Math.max(Runtime.getRuntime().availableProcessors() * 4, 16) - 1) << 1;
+        // 每个分段至少容纳一个 key
+        size = Math.min(size, Integer.highestOneBit(Math.max(maximumSize, 1)));
+        int stripeSize = (Math.max(maximumSize, 1) + size - 1) / size;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(stripeSize);
+        }
+    }
+
+    /**
+     * 是否缓存该 key
+     *
+     * @param key Redis key
+     * @return 是否匹配需要缓存的 key 前缀
+     */
+    public boolean isCacheable(String key) {
+        if (keyPrefixes.isEmpty()) {
+            return true;
+        }
+        for (String keyPrefix : keyPrefixes) {
+            if (key.startsWith(keyPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取缓存，未命中时回源并写入缓存
+     *
+     * @param key    Redis key
+     * @param slot   同一 key 下的读取方式，如字符串、对象或 Hash 的域
+     * @param loader 回源读取
+     * @param <T>    值类型
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, String slot, Supplier<T> loader) {
+        Stripe stripe = stripe(key);
+        long loadGeneration;
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                if (entry.expireAt - System.nanoTime() <= 0) {
+                    stripe.entries.remove(key);
+                    evictions.increment();
+                } else {
+                    Object value = entry.values.get(slot);
+                    if (value != null) {
+                        hits.increment();
+                        return value == NULL_VALUE ? null : (T) value;
+                    }
+                }
+            }
+            loadGeneration = stripe.generation;
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        misses.increment();
+        T value = loader.get();
+        stripe.lock.lock();
+        try {
+            if (loadGeneration == stripe.generation) {
+                Entry entry = stripe.entries.get(key);
+                if (entry == null || entry.expireAt - System.nanoTime() <= 0) {
+                    entry = new Entry(System.nanoTime() + ttlNanos);
+                    stripe.entries.put(key, entry);
+                }
+                entry.values.put(slot, value == null ? NULL_VALUE : value);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        return value;
+    }
+
+    /**
+     * 失效本地缓存，只使所在分段中回源的结果作废
+     *
+     * @param key Redis key
+     */
+    public void invalidate(String key) {
+        Stripe stripe = stripe(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+            stripe.generation++;
+        } finally {
+            stripe.lock.unlock();
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.entries.clear();
+                stripe.generation++;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        invalidations.increment();
+    }
+
+    /**
+     * 收到失效通知，消息体为以换行分隔的 key，为空时清空缓存
+     */
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (body.isEmpty()) {
+            clear();
+            return;
+        }
+        for (String key : body.split(KEY_DELIMITER)) {
+            invalidate(key);
+        }
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @return 命中、未命中、淘汰、失效次数与当前大小
+     */
+    public Stats stats() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size);
+    }
+
+    /**
+     * 缓存统计
+     *
+     * @param hits          命中次数
+     * @param misses        未命中次数
+     * @param evictions     因容量或过期淘汰的次数
+     * @param invalidations 失效次数
+     * @param size          当前缓存的 key 数量
+     */
+    public record Stats(long hits, long misses, long evictions, long invalidations, int size) {
+
+        /**
+         * 命中率
+         *
+         * @return 命中率，无请求时为 0
+         */
+        public double hitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private final class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 按访问顺序排列的缓存，超出分段容量时淘汰最久未访问的 key，仅在锁内访问
+         */
+        final LinkedHashMap<String, Entry> entries;
+
+        /**
+         * 失效版本号，分段内每次失效递增；回源期间同一分段发生失效时不写入缓存，避免缓存旧值
+         */
+        long generation;
+
+        Stripe(int maximumSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+    }
+
+    private static final class Entry {
+
+        final long expireAt;
+
+        /**
+         * 同一 key 下不同读取方式的值，仅在锁内访问
+         */
+        final Map<String, Object> values = new HashMap<>(4);
+
+        Entry(long expireAt) {
+            this.expireAt = expireAt;
+        }
+
+    }
+
+}
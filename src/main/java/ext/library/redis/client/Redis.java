@@ -1,21 +1,39 @@
 package ext.library.redis.client;
 
 import ext.library.convert.Convert;
+import ext.library.redis.constant.LockTypeEnum;
 import ext.library.redis.constant.RedisConstant;
 import ext.library.redis.dto.LockInfo;
-import ext.library.util.DateUtils;
-import ext.library.util.StringUtils;
-import lombok.AllArgsConstructor;
+import ext.library.redis.script.RedisScripts;
+import ext.library.util.IdUtils;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.StringJoiner;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * <h2>简单 Redis</h2>
@@ -23,12 +41,60 @@ import java.util.concurrent.TimeUnit;
  */
 @Slf4j
 @Data
-@AllArgsConstructor
 public class Redis {
 
+    /**
+     * 防护令牌计数器 key 后缀
+     */
+    private static final String FENCING_KEY_SUFFIX = ":fencing";
+
+    /**
+     * 写意向 key 后缀，写者等待期间登记，阻止新读者加读锁
+     */
+    private static final String WRITE_INTENT_KEY_SUFFIX = ":write-intent";
+
+    /**
+     * 防护令牌计数器的超时时间（单位：毫秒），每次加锁时续期，避免计数器 key 永久残留
+     */
+    private static final String FENCING_TIMEOUT_MS = String.valueOf(TimeUnit.DAYS.toMillis(7));
+
+    /**
+     * 未订阅锁释放通知时，等待者重试加锁的最长间隔（单位：毫秒）
+     */
+    private static final long LOCK_RETRY_INTERVAL_MS = 100;
+
+    /**
+     * 当前节点标识，与线程标识组成可重入锁、读写锁的持有者
+     */
+    private static final String NODE_ID = IdUtils.fastSimpleUUID();
+
+    /**
+     * SCAN 每次迭代的默认建议返回数量
+     */
+    private static final long DEFAULT_SCAN_COUNT = 1000;
+
     RedisTemplate<String, Object> redisTemplate;
     StringRedisTemplate stringRedisTemplate;
 
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final LockWatchdog lockWatchdog = new LockWatchdog();
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final LockWaitQueue lockWaitQueue = new LockWaitQueue();
+
+    /**
+     * 近端缓存，未启用时为 null
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile NearCache nearCache;
+
+    public Redis(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
     // Redis 分布式锁
 
     /**
@@ -55,63 +121,278 @@ public class Redis {
     /**
      * Redis 分布式锁 - 加锁
      * <p>可用于实现接口幂等性、秒杀、库存加锁等业务场景需求
-     * <p>注意：服务器集群间需进行时间同步，保障分布式锁的时序性</p>
+     * <p>加锁通过 Lua 脚本一次往返完成，成功时返回单调递增的防护令牌 {@link LockInfo#getFencingToken()}
      *
      * @param lockKey       分布式锁的 key（全局唯一性）
      * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
      * @return 是否成功拿到锁
      */
     public LockInfo lock(String lockKey, Integer lockTimeoutMs) {
-        // 1. 设置锁
-        String redisLockKey = RedisConstant.LOCK_KEY_PREFIX + lockKey;
-        String lockTimeoutStamp = String.valueOf(DateUtils.getTimestamp(lockTimeoutMs));
-        LockInfo lockInfo = new LockInfo();
-        lockInfo.setLockKey(redisLockKey);
-        lockInfo.setLockTimeoutMs(lockTimeoutMs);
-        lockInfo.setLockTimeoutStamp(lockTimeoutStamp);
-        if (Objects.equals(Boolean.TRUE, stringRedisTemplate.opsForValue()
-                .setIfAbsent(redisLockKey, lockTimeoutStamp, lockTimeoutMs, TimeUnit.MILLISECONDS))) {
-            lockInfo.setLock(true);
-            return lockInfo;
-        }
+        return lock(lockKey, lockTimeoutMs, false);
+    }
+
+    /**
+     * Redis 分布式锁 - 加锁
+     * <p>可用于实现接口幂等性、秒杀、库存加锁等业务场景需求
+     * <p>加锁通过 Lua 脚本一次往返完成，成功时返回单调递增的防护令牌 {@link LockInfo#getFencingToken()}
+     * <p>启用看门狗时，将在虚拟线程中每隔 1/3 超时时间续期一次，直至解锁或锁已不再由当前持有者持有，适用于耗时不确定的临界区
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @param watchdog      是否启用看门狗自动续期
+     * @return 是否成功拿到锁
+     */
+    public LockInfo lock(String lockKey, Integer lockTimeoutMs, boolean watchdog) {
+        return lock(LockTypeEnum.SIMPLE, lockKey, lockTimeoutMs, watchdog);
+    }
+
+    /**
+     * Redis 分布式锁 - 加锁
+     * <p>可重入锁、读写锁以当前节点 + 当前线程（含虚拟线程）作为持有者，Redis Hash 中记录持有次数，需在加锁线程中调用
+     *
+     * @param type          锁类型
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @param watchdog      是否启用看门狗自动续期
+     * @return 是否成功拿到锁
+     */
+    public LockInfo lock(LockTypeEnum type, String lockKey, Integer lockTimeoutMs, boolean watchdog) {
+        LockInfo lockInfo = newLockInfo(type, lockKey, lockTimeoutMs, watchdog);
+        acquire(lockInfo, 0);
+        return lockInfo;
+    }
+
+    /**
+     * Redis 分布式锁 - 可重入锁加锁
+     * <p>同一节点的同一线程可重复加锁，每次加锁需对应一次 {@link #unlock(LockInfo)}
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @return 是否成功拿到锁
+     */
+    public LockInfo reentrantLock(String lockKey, Integer lockTimeoutMs) {
+        return lock(LockTypeEnum.REENTRANT, lockKey, lockTimeoutMs, false);
+    }
 
-        // 2. 锁设置失败，拿到当前锁
-        String currentValue = stringRedisTemplate.opsForValue().get(redisLockKey);
-        // 3. 判断当前锁是否过期
-        if (!StringUtils.isEmpty(currentValue) && Long.parseLong(currentValue) < System.currentTimeMillis()) {
-            // 4. 锁已过期，设置新锁同时得到上一个锁
-            String oldValue = stringRedisTemplate.opsForValue().getAndSet(redisLockKey, lockTimeoutStamp);
-            // 5. 确认新锁是否设置成功（判断当前锁与上一个锁是否相等）
-            if (!StringUtils.isEmpty(oldValue) && Objects.equals(oldValue, currentValue)) {
-                // 此处只会有一个线程拿到锁
-                lockInfo.setLock(true);
-                return lockInfo;
+    /**
+     * Redis 分布式锁 - 读锁加锁
+     * <p>读者之间共享，与写锁互斥；已持有写锁的线程可直接加读锁
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @return 是否成功拿到锁
+     */
+    public LockInfo readLock(String lockKey, Integer lockTimeoutMs) {
+        return lock(LockTypeEnum.READ, lockKey, lockTimeoutMs, false);
+    }
+
+    /**
+     * Redis 分布式锁 - 写锁加锁
+     * <p>与读锁、其他写锁互斥，同一线程可重入
+     * <p>只尝试一次，不登记写意向：读者持续重入时可能一直拿不到锁，需要避免写者饥饿时使用
+     * {@link #tryLock(LockTypeEnum, String, Integer, long, boolean)} 等待加锁
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @return 是否成功拿到锁
+     */
+    public LockInfo writeLock(String lockKey, Integer lockTimeoutMs) {
+        return lock(LockTypeEnum.WRITE, lockKey, lockTimeoutMs, false);
+    }
+
+    /**
+     * Redis 分布式锁 - 等待加锁
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @param waitTimeoutMs 最长等待时间（单位：毫秒）
+     * @return 是否成功拿到锁
+     * @see #tryLock(LockTypeEnum, String, Integer, long, boolean)
+     */
+    public LockInfo tryLock(String lockKey, Integer lockTimeoutMs, long waitTimeoutMs) {
+        return tryLock(LockTypeEnum.SIMPLE, lockKey, lockTimeoutMs, waitTimeoutMs, false);
+    }
+
+    /**
+     * Redis 分布式锁 - 等待加锁
+     *
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @param waitTimeoutMs 最长等待时间（单位：毫秒）
+     * @param watchdog      是否启用看门狗自动续期
+     * @return 是否成功拿到锁
+     * @see #tryLock(LockTypeEnum, String, Integer, long, boolean)
+     */
+    public LockInfo tryLock(String lockKey, Integer lockTimeoutMs, long waitTimeoutMs, boolean watchdog) {
+        return tryLock(LockTypeEnum.SIMPLE, lockKey, lockTimeoutMs, waitTimeoutMs, watchdog);
+    }
+
+    /**
+     * Redis 分布式锁 - 等待加锁
+     * <p>锁被占用时，当前线程在本地按 key 排队挂起，收到锁释放通知（Redis pub/sub）后同一 JVM 中只唤醒一个等待者重试，
+     * 无需业务自行编写 sleep/retry 循环，也不会由所有等待者轮询 Redis
+     * <p>为防止持有者宕机未发布通知，单次挂起不超过当前锁的剩余超时时间
+     * <p>写锁等待期间登记写意向，新读者不能再加读锁（已持有读锁的读者仍可重入），直到写者加锁成功或放弃等待
+     *
+     * @param type          锁类型
+     * @param lockKey       分布式锁的 key（全局唯一性）
+     * @param lockTimeoutMs 分布式锁的超时时间（单位：毫秒），到期后锁将自动超时
+     * @param waitTimeoutMs 最长等待时间（单位：毫秒）
+     * @param watchdog      是否启用看门狗自动续期
+     * @return 是否成功拿到锁（等待超时或线程被中断时未拿到锁）
+     */
+    public LockInfo tryLock(LockTypeEnum type, String lockKey, Integer lockTimeoutMs, long waitTimeoutMs, boolean watchdog) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        LockInfo lockInfo = newLockInfo(type, lockKey, lockTimeoutMs, watchdog);
+        String redisLockKey = lockInfo.getLockKey();
+        // 先排队再加锁，加锁失败后、挂起前到达的锁释放通知不会丢失
+        LockWaitQueue.Waiters waiters = lockWaitQueue.join(redisLockKey);
+        try {
+            while (true) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                long ttl = acquire(lockInfo, Math.max(remaining, 0));
+                if (lockInfo.isLock()) {
+                    return lockInfo;
+                }
+
+                remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return lockInfo;
+                }
+                long wait = Math.min(remaining, Math.max(ttl, 1));
+                if (!lockWaitQueue.isSubscribed()) {
+                    wait = Math.min(wait, LOCK_RETRY_INTERVAL_MS);
+                }
+                try {
+                    lockWaitQueue.await(waiters, wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return lockInfo;
+                }
+                lockInfo = newLockInfo(type, lockKey, lockTimeoutMs, watchdog);
+            }
+        } finally {
+            lockWaitQueue.leave(redisLockKey, waiters);
+            if (type == LockTypeEnum.WRITE && !lockInfo.isLock()) {
+                // 放弃等待时撤销写意向，不再阻止新读者
+                stringRedisTemplate.execute(RedisScripts.COMPARE_AND_DELETE, List.of(redisLockKey + WRITE_INTENT_KEY_SUFFIX), lockInfo.getOwner());
             }
         }
+    }
 
-        lockInfo.setLock(false);
-        return lockInfo;
+    /**
+     * 订阅锁释放通知，启用 {@link #tryLock(LockTypeEnum, String, Integer, long, boolean)} 的本地等待队列唤醒
+     * <p>未订阅时等待者将以不超过 {@value #LOCK_RETRY_INTERVAL_MS} 毫秒的间隔重试加锁
+     *
+     * @param container Redis 消息监听容器
+     */
+    public void subscribeLockRelease(RedisMessageListenerContainer container) {
+        container.addMessageListener(lockWaitQueue, new ChannelTopic(RedisConstant.LOCK_RELEASE_CHANNEL));
+        lockWaitQueue.setSubscribed(true);
+    }
+
+    /**
+     * Redis 分布式锁 - 续期
+     * <p>仅当锁仍由当前持有者持有时，才将超时时间重置为 {@link LockInfo#getLockTimeoutMs()}
+     *
+     * @param lockInfo 加锁时返回的锁对象
+     * @return 是否续期成功
+     */
+    public boolean renew(LockInfo lockInfo) {
+        RedisScript<Long> script = lockInfo.getType() == LockTypeEnum.SIMPLE ? RedisScripts.RENEW : RedisScripts.HASH_RENEW;
+        Long result = stringRedisTemplate.execute(script, List.of(lockInfo.getLockKey()),
+                lockInfo.getOwner(), String.valueOf(lockInfo.getLockTimeoutMs()));
+        return Objects.equals(result, 1L);
     }
 
     // Key（键），简单的 key-value 操作
 
     /**
      * Redis 分布式锁 - 解锁
+     * <p>通过 Lua 脚本原子地比较持有者并删除，不会释放其他持有者的锁
+     * <p>可重入锁、读写锁每次解锁减少一次持有次数，减至 0 时释放
      *
      * @param lockInfo 加锁时返回的锁对象
      */
     public void unlock(LockInfo lockInfo) {
-        String lockKey = lockInfo.getLockKey();
-        String lockTimeoutStamp = lockInfo.getLockTimeoutStamp();
-
+        long holds = 0;
         try {
-            String currentValue = stringRedisTemplate.opsForValue().get(lockKey);
-            if (StringUtils.isNotEmpty(currentValue) && Objects.equals(currentValue, lockTimeoutStamp)) {
-                stringRedisTemplate.opsForValue().getOperations().delete(lockKey);
+            String lockKey = lockInfo.getLockKey();
+            if (lockInfo.getType() == LockTypeEnum.SIMPLE) {
+                stringRedisTemplate.execute(RedisScripts.UNLOCK, List.of(lockKey), lockInfo.getOwner(), RedisConstant.LOCK_RELEASE_CHANNEL);
+            } else {
+                String write = lockInfo.getType() == LockTypeEnum.WRITE ? "1" : "0";
+                Long result = stringRedisTemplate.execute(RedisScripts.HASH_UNLOCK, List.of(lockKey), lockInfo.getOwner(),
+                        String.valueOf(lockInfo.getLockTimeoutMs()), RedisConstant.LOCK_RELEASE_CHANNEL, write);
+                holds = result == null ? 0 : result;
             }
         } catch (Exception e) {
             log.error("【redis 分布式锁】解锁异常", e);
         }
+        // 可重入持有未全部释放时继续续期
+        if (lockInfo.isWatchdog() && holds <= 0) {
+            lockWatchdog.cancel(lockInfo);
+        }
+        if (!lockWaitQueue.isSubscribed()) {
+            // 未订阅锁释放通知时，至少唤醒本地等待者
+            lockWaitQueue.signal(lockInfo.getLockKey());
+        }
+    }
+
+    private LockInfo newLockInfo(LockTypeEnum type, String lockKey, Integer lockTimeoutMs, boolean watchdog) {
+        LockInfo lockInfo = new LockInfo();
+        lockInfo.setType(type);
+        // 使用 hash tag 保证锁与防护令牌计数器位于同一个 slot
+        lockInfo.setLockKey(RedisConstant.LOCK_KEY_PREFIX + type.getKeyPrefix() + "{" + lockKey + "}");
+        lockInfo.setLockTimeoutMs(lockTimeoutMs);
+        lockInfo.setOwner(switch (type) {
+            case SIMPLE -> IdUtils.fastSimpleUUID();
+            case REENTRANT -> threadOwner();
+            case READ -> threadOwner() + ":read";
+            case WRITE -> threadOwner() + ":write";
+        });
+        lockInfo.setWatchdog(watchdog);
+        return lockInfo;
+    }
+
+    /**
+     * 当前节点 + 当前线程的持有者标识
+     */
+    private static String threadOwner() {
+        return NODE_ID + RedisConstant.KEY_SEPARATOR + Thread.currentThread().threadId();
+    }
+
+    /**
+     * 执行加锁脚本
+     *
+     * @param lockInfo      锁对象，加锁结果将写入其中
+     * @param writeIntentMs 写锁加锁失败时登记写意向的超时时间（单位：毫秒），0 表示不登记
+     * @return 加锁失败时当前持有者的剩余超时时间（单位：毫秒），加锁成功时返回 0
+     */
+    private long acquire(LockInfo lockInfo, long writeIntentMs) {
+        String redisLockKey = lockInfo.getLockKey();
+        List<String> keys = List.of(redisLockKey, redisLockKey + FENCING_KEY_SUFFIX, redisLockKey + WRITE_INTENT_KEY_SUFFIX);
+        String owner = lockInfo.getOwner();
+        String lockTimeoutMs = String.valueOf(lockInfo.getLockTimeoutMs());
+        Long result = switch (lockInfo.getType()) {
+            case SIMPLE -> stringRedisTemplate.execute(RedisScripts.LOCK, keys, owner, lockTimeoutMs, FENCING_TIMEOUT_MS);
+            case REENTRANT -> stringRedisTemplate.execute(RedisScripts.REENTRANT_LOCK, keys, owner, lockTimeoutMs, FENCING_TIMEOUT_MS);
+            case READ -> stringRedisTemplate.execute(RedisScripts.READ_LOCK, keys, owner, lockTimeoutMs, FENCING_TIMEOUT_MS,
+                    threadOwner() + ":write");
+            case WRITE -> stringRedisTemplate.execute(RedisScripts.WRITE_LOCK, keys, owner, lockTimeoutMs, FENCING_TIMEOUT_MS,
+                    String.valueOf(writeIntentMs));
+        };
+        if (result == null || result <= 0) {
+            lockInfo.setLock(false);
+            return result == null ? 0 : -result;
+        }
+
+        lockInfo.setLock(true);
+        lockInfo.setFencingToken(result);
+        if (lockInfo.isWatchdog()) {
+            lockWatchdog.watch(lockInfo, this::renew);
+        }
+        return 0;
     }
 
     /**
@@ -142,17 +423,73 @@ public class Redis {
      * @return 递增后的值
      */
     public long incr(String key, long delta) {
-        return Objects.requireNonNull(stringRedisTemplate.opsForValue().increment(key, delta));
+        long value = Objects.requireNonNull(stringRedisTemplate.opsForValue().increment(key, delta));
+        invalidate(key);
+        return value;
     }
 
     /**
-     * 实现命令：KEYS pattern，查找所有符合给定模式 pattern 的 key
+     * 查找所有符合给定模式 pattern 的 key
+     * <p>基于 SCAN 游标分批迭代实现，不会像 KEYS 一样阻塞 Redis；结果集较大时请使用 {@link #scan(String, long)} 流式处理
      *
      * @param pattern 不能为空
      * @return keys
      */
     public Set<String> keys(String pattern) {
-        return stringRedisTemplate.keys(pattern);
+        try (Stream<String> keys = scan(pattern, DEFAULT_SCAN_COUNT)) {
+            return keys.collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * 实现命令：SCAN cursor MATCH pattern COUNT count，惰性迭代所有符合给定模式 pattern 的 key
+     * <p>流按需向 Redis 发送 SCAN 获取下一批 key；<b>使用完毕后必须关闭流</b>（如 try-with-resources）以释放连接
+     * <p>SCAN 可能返回重复的 key，需要去重时请自行处理
+     *
+     * @param pattern 不能为空
+     * @param count   每次 SCAN 的建议返回数量
+     * @return key 的惰性流
+     */
+    public Stream<String> scan(String pattern, long count) {
+        ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+        return stringRedisTemplate.scan(options).stream();
+    }
+
+    /**
+     * 删除所有符合给定模式 pattern 的 key
+     * <p>基于 SCAN 分批迭代，每批 key 通过一次 UNLINK 在后台线程异步释放内存，不会阻塞 Redis
+     *
+     * @param pattern 不能为空
+     * @param count   每批 SCAN 与 UNLINK 的 key 数量
+     * @return 被删除 key 的数量
+     */
+    public long deleteByPattern(String pattern, int count) {
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(count);
+        try (Stream<String> keys = scan(pattern, count)) {
+            Iterator<String> iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() >= count) {
+                    deleted += unlink(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleted += unlink(batch);
+        }
+        if (nearCache != null) {
+            // 无法枚举已删除的 key，清空所有节点的近端缓存
+            nearCache.clear();
+            stringRedisTemplate.convertAndSend(RedisConstant.NEAR_CACHE_INVALIDATE_CHANNEL, "");
+        }
+        return deleted;
+    }
+
+    private long unlink(Collection<String> keys) {
+        Long unlinked = stringRedisTemplate.unlink(keys);
+        return unlinked == null ? 0 : unlinked;
     }
 
     // get set ...
@@ -163,7 +500,22 @@ public class Redis {
      * @param key 不能为空
      */
     public Boolean del(String key) {
-        return stringRedisTemplate.delete(key);
+        Boolean deleted = stringRedisTemplate.delete(key);
+        invalidate(key);
+        return deleted;
+    }
+
+    /**
+     * 比较并删除：key 的值等于期望值时删除 key，比较与删除原子执行
+     *
+     * @param key      不能为空
+     * @param expected 期望值，与写入时使用相同的序列化方式
+     * @return 是否删除成功
+     */
+    public boolean compareAndDelete(String key, Object expected) {
+        Long deleted = redisTemplate.execute(RedisScripts.COMPARE_AND_DELETE, List.of(key), expected);
+        invalidate(key);
+        return deleted != null && deleted > 0;
     }
 
     /**
@@ -174,6 +526,7 @@ public class Redis {
      */
     public void set(String key, String value) {
         stringRedisTemplate.opsForValue().set(key, value);
+        invalidate(key);
     }
 
     /**
@@ -184,6 +537,7 @@ public class Redis {
      */
     public void set(String key, Object value) {
         redisTemplate.opsForValue().set(key, value);
+        invalidate(key);
     }
 
     /**
@@ -195,6 +549,7 @@ public class Redis {
      */
     public void set(String key, Object value, long timeout) {
         redisTemplate.opsForValue().set(key, value, timeout, TimeUnit.SECONDS);
+        invalidate(key);
     }
 
     /**
@@ -206,6 +561,7 @@ public class Redis {
      */
     public void set(String key, String value, long timeout) {
         stringRedisTemplate.opsForValue().set(key, value, timeout, TimeUnit.SECONDS);
+        invalidate(key);
     }
     /**
      * 如果不存在则设置 并返回 true 如果存在则返回 false
@@ -215,7 +571,11 @@ public class Redis {
      * @return set 成功或失败
      */
     public <T> boolean setIfAbsent(final String key, final T value, final Duration duration) {
-        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, duration));
+        boolean set = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, duration));
+        if (set) {
+            invalidate(key);
+        }
+        return set;
     }
 
     /**
@@ -225,7 +585,7 @@ public class Redis {
      * @return value
      */
     public String get(String key) {
-        return stringRedisTemplate.opsForValue().get(key);
+        return read(key, "s", () -> stringRedisTemplate.opsForValue().get(key));
     }
 
     /**
@@ -235,7 +595,58 @@ public class Redis {
      * @return 对象
      */
     public Object getObject(String key) {
-        return redisTemplate.opsForValue().get(key);
+        return readObject(key, "o", redisTemplate.getValueSerializer(), connection -> connection.stringCommands().get(rawKey(key)));
+    }
+
+    /**
+     * 实现命令：MGET key [key ...]，一次往返返回所有给定 key 的字符串值。
+     *
+     * @param keys 不能为空
+     * @return 按 keys 顺序排列的值，不存在的 key 对应 null
+     */
+    public List<String> mget(Collection<String> keys) {
+        return stringRedisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 实现命令：MGET key [key ...]，一次往返返回所有给定 key 所关联的对象。
+     *
+     * @param keys 不能为空
+     * @return 按 keys 顺序排列的对象，不存在的 key 对应 null
+     */
+    public List<Object> mgetObject(Collection<String> keys) {
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
+    /**
+     * 实现命令：MSET key value [key value ...]，一次往返设置多个 key-value（字符串对象）
+     *
+     * @param map 不能为空
+     */
+    public void mset(Map<String, String> map) {
+        stringRedisTemplate.opsForValue().multiSet(map);
+        invalidate(map.keySet());
+    }
+
+    /**
+     * 实现命令：MSET key value [key value ...]，一次往返设置多个 key-value（可序列化对象）
+     *
+     * @param map 不能为空
+     */
+    public void msetObject(Map<String, ?> map) {
+        redisTemplate.opsForValue().multiSet(map);
+        invalidate(map.keySet());
+    }
+
+    /**
+     * 批量设置 key-value 和超时时间（秒）
+     * <p>MSET 不支持过期时间，此处以管道批量发送 SET key value EX seconds，仍只有一次往返
+     *
+     * @param map     不能为空
+     * @param timeout 超时时间（单位：秒）
+     */
+    public void msetObject(Map<String, ?> map, long timeout) {
+        pipeline(batch -> map.forEach((key, value) -> batch.set(key, (Object) value, timeout)));
     }
 
     // Hash（哈希表）
@@ -249,7 +660,7 @@ public class Redis {
      * @return 反序列化对象
      */
     public <T> T get(String key, Class<T> clazz) {
-        return Convert.convert(redisTemplate.opsForValue().get(key), clazz);
+        return Convert.convert(getObject(key), clazz);
     }
 
     /**
@@ -262,6 +673,7 @@ public class Redis {
      */
     public void hset(String key, String hashKey, Object value) {
         redisTemplate.opsForHash().put(key, hashKey, value);
+        invalidate(key);
     }
 
     /**
@@ -273,7 +685,8 @@ public class Redis {
      * @return hashKey 的值
      */
     public Object hget(String key, String hashKey) {
-        return redisTemplate.opsForHash().get(key, hashKey);
+        return readObject(key, "h:" + hashKey, redisTemplate.getHashValueSerializer(),
+                connection -> connection.hashCommands().hGet(rawKey(key), rawHashKey(hashKey)));
     }
 
     /**
@@ -287,7 +700,29 @@ public class Redis {
      * @return hashKey 的反序列化对象
      */
     public <T> T hget(String key, String hashKey, Class<T> clazz) {
-        return Convert.convert(redisTemplate.opsForHash().get(key, hashKey), clazz);
+        return Convert.convert(hget(key, hashKey), clazz);
+    }
+
+    /**
+     * 实现命令：HMGET key field [field ...]，返回哈希表 key 中一个或多个给定域的值
+     *
+     * @param key      不能为空
+     * @param hashKeys 不能为空
+     * @return 按 hashKeys 顺序排列的值，不存在的域对应 null
+     */
+    public List<Object> hmget(String key, Collection<String> hashKeys) {
+        return redisTemplate.opsForHash().multiGet(key, new ArrayList<>(hashKeys));
+    }
+
+    /**
+     * 实现命令：HMSET key field value [field value ...]，同时将多个 field-value 设置到哈希表 key 中
+     *
+     * @param key 不能为空
+     * @param map 不能为空
+     */
+    public void hmset(String key, Map<String, ?> map) {
+        redisTemplate.opsForHash().putAll(key, map);
+        invalidate(key);
     }
 
     /**
@@ -299,6 +734,7 @@ public class Redis {
      */
     public void hdel(String key, Object... hashKeys) {
         redisTemplate.opsForHash().delete(key, hashKeys);
+        invalidate(key);
     }
 
     // List（列表）
@@ -348,4 +784,85 @@ public class Redis {
         return stringRedisTemplate.opsForList().leftPop(key);
     }
 
+    // Pipeline（管道）
+
+    /**
+     * 管道批量执行混合命令，所有命令通过一次管道刷新发送，仅产生一次网络往返
+     * <p>命令结果亦可通过各命令返回的 {@link RedisBatch.Response} 获取
+     *
+     * @param consumer 向 {@link RedisBatch} 中排队命令
+     * @return 按排队顺序排列的命令结果
+     */
+    public List<Object> pipeline(Consumer<RedisBatch> consumer) {
+        RedisBatch batch = new RedisBatch(redisTemplate);
+        consumer.accept(batch);
+        List<Object> results = batch.flush(redisTemplate);
+        invalidate(batch.writtenKeys());
+        return results;
+    }
+
+    // Near Cache（近端缓存）
+
+    /**
+     * 启用近端缓存，GET、HGET 读取结果将缓存在 JVM 内
+     * <p>并订阅失效频道，其他节点通过 {@link Redis} 写入时失效本地缓存
+     *
+     * @param nearCache 近端缓存
+     * @param container Redis 消息监听容器
+     */
+    public void enableNearCache(NearCache nearCache, RedisMessageListenerContainer container) {
+        container.addMessageListener(nearCache, new ChannelTopic(RedisConstant.NEAR_CACHE_INVALIDATE_CHANNEL));
+        this.nearCache = nearCache;
+    }
+
+    private <T> T read(String key, String slot, Supplier<T> loader) {
+        NearCache cache = nearCache;
+        if (cache == null || !cache.isCacheable(key)) {
+            return loader.get();
+        }
+        return cache.get(key, slot, loader);
+    }
+
+    /**
+     * 读取对象，近端缓存中只保存序列化后的字节，每次读取反序列化出新的对象
+     */
+    private Object readObject(String key, String slot, RedisSerializer<?> serializer, RedisCallback<byte[]> loader) {
+        byte[] bytes = read(key, slot, () -> redisTemplate.execute(loader));
+        return bytes == null ? null : serializer.deserialize(bytes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawHashKey(String hashKey) {
+        return ((RedisSerializer<String>) redisTemplate.getHashKeySerializer()).serialize(hashKey);
+    }
+
+    private void invalidate(String key) {
+        invalidate(List.of(key));
+    }
+
+    /**
+     * 失效本地近端缓存，并通知其他节点失效
+     */
+    private void invalidate(Collection<String> keys) {
+        NearCache cache = nearCache;
+        if (cache == null || keys.isEmpty()) {
+            return;
+        }
+        StringJoiner message = new StringJoiner(NearCache.KEY_DELIMITER);
+        for (String key : keys) {
+            if (cache.isCacheable(key)) {
+                cache.invalidate(key);
+                message.add(key);
+            }
+        }
+        if (message.length() > 0) {
+            stringRedisTemplate.convertAndSend(RedisConstant.NEAR_CACHE_INVALIDATE_CHANNEL, message.toString());
+        }
+    }
+
 }
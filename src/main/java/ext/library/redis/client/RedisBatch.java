@@ -0,0 +1,354 @@
+package ext.library.redis.client;
+
+import ext.library.convert.Convert;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * <h2>Redis 批量命令（管道）</h2>
+ * 在 {@link Redis#pipeline(Consumer)} 中排队多条混合命令，最终通过一次管道刷新发送至 Redis，仅产生一次网络往返。
+ * <p>每条命令返回一个 {@link Response}，管道提交后可通过 {@link Response#get()} 获取对应的强类型结果
+ *
+ * <blockquote>示例：
+ * <pre>
+ * {@code
+ *     List<Object> results = redis.pipeline(batch -> {
+ *         batch.get("a");
+ *         batch.hget("b", "field");
+ *         batch.incr("c", 1);
+ *     });
+ * }
+ * </pre>
+ * </blockquote>
+ */
+public class RedisBatch {
+
+    private final RedisSerializer<String> stringSerializer;
+    private final RedisSerializer<Object> valueSerializer;
+    private final RedisSerializer<Object> hashValueSerializer;
+    private final List<Command<?>> commands = new ArrayList<>();
+    private final Set<String> writtenKeys = new LinkedHashSet<>();
+
+    @SuppressWarnings("unchecked")
+    RedisBatch(RedisTemplate<String, Object> redisTemplate) {
+        this.stringSerializer = RedisSerializer.string();
+        this.valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        this.hashValueSerializer = (RedisSerializer<Object>) redisTemplate.getHashValueSerializer();
+    }
+
+    // Key（键）
+
+    /**
+     * 实现命令：DEL key，删除一个 key
+     *
+     * @param key 不能为空
+     * @return 被删除 key 的数量
+     */
+    public Response<Long> del(String key) {
+        return add(connection -> connection.keyCommands().del(rawKey(written(key))), Long.class::cast);
+    }
+
+    /**
+     * 实现命令：expire 设置过期时间，单位秒
+     *
+     * @param key     key
+     * @param timeout 过期时间（单位：秒）
+     * @return 是否设置成功
+     */
+    public Response<Boolean> expire(String key, long timeout) {
+        return add(connection -> connection.keyCommands().expire(rawKey(key), timeout), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：INCR key，将 key 中储存的数字值按增量递增。
+     *
+     * @param key   不能为空
+     * @param delta 增量数字
+     * @return 递增后的值
+     */
+    public Response<Long> incr(String key, long delta) {
+        return add(connection -> connection.stringCommands().incrBy(rawKey(written(key)), delta), Long.class::cast);
+    }
+
+    // get set ...
+
+    /**
+     * 实现命令：SET key value，设置一个 key-value（将字符串对象 value 关联到 key）
+     *
+     * @param key   不能为空
+     * @param value 字符串对象
+     * @return 是否设置成功
+     */
+    public Response<Boolean> set(String key, String value) {
+        return add(connection -> connection.stringCommands().set(rawKey(written(key)), stringSerializer.serialize(value)), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：SET key value，设置一个 key-value（将可序列化对象 value 关联到 key）
+     *
+     * @param key   不能为空
+     * @param value 可序列化对象
+     * @return 是否设置成功
+     */
+    public Response<Boolean> set(String key, Object value) {
+        return add(connection -> connection.stringCommands().set(rawKey(written(key)), valueSerializer.serialize(value)), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：SET key value EX seconds，设置 key-value 和超时时间（秒）
+     *
+     * @param key     不能为空
+     * @param value   字符串对象
+     * @param timeout 超时时间（单位：秒）
+     * @return 是否设置成功
+     */
+    public Response<Boolean> set(String key, String value, long timeout) {
+        return add(connection -> connection.stringCommands().setEx(rawKey(written(key)), timeout, stringSerializer.serialize(value)), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：SET key value EX seconds，设置 key-value 和超时时间（秒）
+     *
+     * @param key     不能为空
+     * @param value   可序列化对象
+     * @param timeout 超时时间（单位：秒）
+     * @return 是否设置成功
+     */
+    public Response<Boolean> set(String key, Object value, long timeout) {
+        return add(connection -> connection.stringCommands().setEx(rawKey(written(key)), timeout, valueSerializer.serialize(value)), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：GET key，返回 key 所关联的字符串值。
+     *
+     * @param key 不能为空
+     * @return value
+     */
+    public Response<String> get(String key) {
+        return add(connection -> connection.stringCommands().get(rawKey(key)), raw -> stringSerializer.deserialize((byte[]) raw));
+    }
+
+    /**
+     * 实现命令：GET key，返回 key 所关联的对象。
+     *
+     * @param key 不能为空
+     * @return 对象
+     */
+    public Response<Object> getObject(String key) {
+        return add(connection -> connection.stringCommands().get(rawKey(key)), raw -> valueSerializer.deserialize((byte[]) raw));
+    }
+
+    /**
+     * 实现命令：GET key，返回 key 所关联的反序列化对象。
+     *
+     * @param <T>   反序列化对象类型
+     * @param key   不能为空
+     * @param clazz 反序列化对象类
+     * @return 反序列化对象
+     */
+    public <T> Response<T> get(String key, Class<T> clazz) {
+        return add(connection -> connection.stringCommands().get(rawKey(key)), raw -> Convert.convert(valueSerializer.deserialize((byte[]) raw), clazz));
+    }
+
+    // Hash（哈希表）
+
+    /**
+     * 实现命令：HSET key field value，将哈希表 key 中的域 field 的值设为 value
+     *
+     * @param key     不能为空
+     * @param hashKey 不能为空
+     * @param value   设置的值
+     * @return 是否为新建的域
+     */
+    public Response<Boolean> hset(String key, String hashKey, Object value) {
+        return add(connection -> connection.hashCommands().hSet(rawKey(written(key)), rawKey(hashKey), hashValueSerializer.serialize(value)), Boolean.class::cast);
+    }
+
+    /**
+     * 实现命令：HGET key field，返回哈希表 key 中给定域 field 的值
+     *
+     * @param key     不能为空
+     * @param hashKey 不能为空
+     * @return hashKey 的值
+     */
+    public Response<Object> hget(String key, String hashKey) {
+        return add(connection -> connection.hashCommands().hGet(rawKey(key), rawKey(hashKey)), raw -> hashValueSerializer.deserialize((byte[]) raw));
+    }
+
+    /**
+     * 实现命令：HGET key field，返回哈希表 key 中给定域 field 的值
+     *
+     * @param <T>     反序列化对象类型
+     * @param key     不能为空
+     * @param hashKey 不能为空
+     * @param clazz   反序列化对象类
+     * @return hashKey 的反序列化对象
+     */
+    public <T> Response<T> hget(String key, String hashKey, Class<T> clazz) {
+        return add(connection -> connection.hashCommands().hGet(rawKey(key), rawKey(hashKey)), raw -> Convert.convert(hashValueSerializer.deserialize((byte[]) raw), clazz));
+    }
+
+    /**
+     * 实现命令：HDEL key field [field ...]，删除哈希表 key 中的一个或多个指定域，不存在的域将被忽略。
+     *
+     * @param key      不能为空
+     * @param hashKeys 不能为空
+     * @return 被成功删除域的数量
+     */
+    public Response<Long> hdel(String key, String... hashKeys) {
+        byte[][] rawHashKeys = new byte[hashKeys.length][];
+        for (int i = 0; i < hashKeys.length; i++) {
+            rawHashKeys[i] = rawKey(hashKeys[i]);
+        }
+        return add(connection -> connection.hashCommands().hDel(rawKey(written(key)), rawHashKeys), Long.class::cast);
+    }
+
+    // List（列表）
+
+    /**
+     * 实现命令：LPUSH key value，将一个值 value 插入到列表 key 的表头
+     *
+     * @param key   不能为空
+     * @param value 插入的值
+     * @return 执行 LPUSH 命令后，列表的长度。
+     */
+    public Response<Long> lpush(String key, String value) {
+        return add(connection -> connection.listCommands().lPush(rawKey(key), stringSerializer.serialize(value)), Long.class::cast);
+    }
+
+    /**
+     * 实现命令：RPUSH key value，将一个值 value 插入到列表 key 的表尾 (最右边)。
+     *
+     * @param key   不能为空
+     * @param value 插入的值
+     * @return 执行 RPUSH 命令后，列表的长度。
+     */
+    public Response<Long> rpush(String key, String value) {
+        return add(connection -> connection.listCommands().rPush(rawKey(key), stringSerializer.serialize(value)), Long.class::cast);
+    }
+
+    /**
+     * 实现命令：LPOP key，移除并返回列表 key 的头元素。
+     *
+     * @param key 不能为空
+     * @return 列表 key 的头元素。
+     */
+    public Response<String> lpop(String key) {
+        return add(connection -> connection.listCommands().lPop(rawKey(key)), raw -> stringSerializer.deserialize((byte[]) raw));
+    }
+
+    // 管道
+
+    /**
+     * 被写命令修改的 key
+     *
+     * @return key 集合
+     */
+    Set<String> writtenKeys() {
+        return writtenKeys;
+    }
+
+    /**
+     * 已排队的命令数量
+     *
+     * @return 命令数量
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 通过一次管道刷新执行所有已排队的命令
+     *
+     * @param redisTemplate 执行管道的 RedisTemplate
+     * @return 按排队顺序解码后的结果
+     */
+    List<Object> flush(RedisTemplate<String, Object> redisTemplate) {
+        if (commands.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 结果以原始字节返回，由每条命令各自的解码器处理，以支持字符串与对象混合的命令
+        List<Object> rawResults = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Command<?> command : commands) {
+                command.action.accept(connection);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+
+        List<Object> results = new ArrayList<>(rawResults.size());
+        for (int i = 0; i < commands.size(); i++) {
+            results.add(commands.get(i).complete(rawResults.get(i)));
+        }
+        return results;
+    }
+
+    private <T> Response<T> add(Consumer<RedisConnection> action, Function<Object, T> decoder) {
+        Command<T> command = new Command<>(action, decoder, new Response<>());
+        commands.add(command);
+        return command.response;
+    }
+
+    private String written(String key) {
+        writtenKeys.add(key);
+        return key;
+    }
+
+    private byte[] rawKey(String key) {
+        return stringSerializer.serialize(Objects.requireNonNull(key, "key 不能为空"));
+    }
+
+    private record Command<T>(Consumer<RedisConnection> action, Function<Object, T> decoder, Response<T> response) {
+
+        T complete(Object raw) {
+            T value = raw == null ? null : decoder.apply(raw);
+            response.set(value);
+            return value;
+        }
+
+    }
+
+    /**
+     * 管道命令的结果，管道提交后才可获取
+     *
+     * @param <T> 结果类型
+     */
+    public static final class Response<T> {
+
+        private T value;
+        private boolean done;
+
+        private Response() {
+        }
+
+        private void set(T value) {
+            this.value = value;
+            this.done = true;
+        }
+
+        /**
+         * 获取命令结果
+         *
+         * @return 命令结果
+         * @throws IllegalStateException 管道尚未提交
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("管道尚未提交，无法获取命令结果");
+            }
+            return value;
+        }
+
+    }
+
+}
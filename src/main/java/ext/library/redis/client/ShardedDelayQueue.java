@@ -0,0 +1,302 @@
+package ext.library.redis.client;
+
+import ext.library.redis.dto.DelayMessage;
+import ext.library.redis.script.RedisScripts;
+import ext.library.util.IdUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <h2>分片延迟队列</h2>
+ * 按消息 ID 哈希将同一主题的消息分散到多个分片，每个分片的 key 使用独立的 hash tag（{@code {topic:分片号}}），
+ * 在 Redis Cluster 中分布到不同节点，吞吐随节点数扩展
+ * <p>分片 ZSET 只存储消息 ID，消息体存储在同一分片的 Hash（{@code {topic:分片号}:payload}）中，保持 ZSET 精简
+ * <p>消费时先通过一次管道往返探测各分片的到期消息数，再从轮转的起始分片开始只拉取有到期消息的分片，多个消费者均匀地分摊各分片
+ * <p>每次推送生成投递令牌，确认时校验令牌，同一 ID 在处理期间重新推送时，旧投递的确认不会删除新的消息体
+ *
+ * <blockquote>示例：
+ * <pre>
+ * {@code
+ *     ShardedDelayQueue queue = delayQueue.sharded("order:timeout", 16);
+ *     queue.push(orderId, payload, 30, TimeUnit.MINUTES);
+ *     queue.subscribe(32, Duration.ofMinutes(1), 3, message -> handle(message));
+ * }
+ * </pre>
+ * </blockquote>
+ */
+@Slf4j
+public class ShardedDelayQueue {
+
+    /**
+     * 消息体 Hash 的 key 后缀
+     */
+    private static final String PAYLOAD_SUFFIX = ":payload";
+
+    /**
+     * 投递令牌 Hash 的 key 后缀
+     */
+    private static final String TOKEN_SUFFIX = ":token";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String topic;
+    private final String[] shardKeys;
+
+    /**
+     * 下次拉取的起始分片
+     */
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * @param stringRedisTemplate StringRedisTemplate
+     * @param topic               主题
+     * @param shards              分片数，创建后不应修改，否则已有消息所在分片将无法定位
+     */
+    public ShardedDelayQueue(StringRedisTemplate stringRedisTemplate, String topic, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("分片数不能小于 1");
+        }
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.topic = topic;
+        this.shardKeys = new String[shards];
+        for (int i = 0; i < shards; i++) {
+            shardKeys[i] = "{" + topic + ":" + i + "}";
+        }
+    }
+
+    /**
+     * 推送消息
+     *
+     * @param id        消息 ID，同一 ID 重复推送时覆盖消息体与到期时间，并取代正在处理或已在死信中的旧投递
+     * @param payload   消息体
+     * @param delayTime 延迟时间
+     * @param timeUnit  时间单位
+     */
+    public void push(String id, String payload, long delayTime, TimeUnit timeUnit) {
+        String shardKey = shardKey(id);
+        stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_PUSH, List.of(shardKey, shardKey + PAYLOAD_SUFFIX, shardKey + TOKEN_SUFFIX,
+                        shardKey + DelayQueue.PROCESSING_SUFFIX, shardKey + DelayQueue.RETRIES_SUFFIX, shardKey + DelayQueue.DEAD_LETTER_SUFFIX),
+                String.valueOf(System.currentTimeMillis() + timeUnit.toMillis(delayTime)), id, payload, IdUtils.fastSimpleUUID());
+    }
+
+    /**
+     * 删除尚未到期的消息
+     *
+     * @param id 消息 ID
+     * @return 是否删除成功
+     */
+    public boolean delete(String id) {
+        String shardKey = shardKey(id);
+        Long removed = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_REMOVE,
+                List.of(shardKey, shardKey + PAYLOAD_SUFFIX, shardKey + TOKEN_SUFFIX), id);
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * 批量弹出到期消息（至多一次投递）
+     *
+     * @param max 最多弹出的数量
+     * @return 到期消息，无到期消息时为空列表
+     */
+    public List<DelayMessage> popBatch(int max) {
+        return poll(max, "");
+    }
+
+    /**
+     * 批量领取到期消息（至少一次投递），处理成功后须调用 {@link #ack(DelayMessage)} 确认
+     *
+     * @param max               最多领取的数量
+     * @param visibilityTimeout 可见性超时时间
+     * @return 到期消息，无到期消息时为空列表
+     */
+    public List<DelayMessage> reserveBatch(int max, Duration visibilityTimeout) {
+        return poll(max, String.valueOf(System.currentTimeMillis() + visibilityTimeout.toMillis()));
+    }
+
+    /**
+     * 确认消息处理完成，同时删除消息体
+     *
+     * @param message {@link #reserveBatch(int, Duration)} 领取的消息
+     * @return 是否确认成功，false 表示消息已因可见性超时重新入队，或同一 ID 已重新推送
+     */
+    public boolean ack(DelayMessage message) {
+        String shardKey = shardKey(message.getId());
+        Long removed = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_ACK, List.of(shardKey + DelayQueue.PROCESSING_SUFFIX,
+                        shardKey + DelayQueue.RETRIES_SUFFIX, shardKey + PAYLOAD_SUFFIX, shardKey + TOKEN_SUFFIX),
+                message.getId(), message.getDeliveryToken());
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * 回收所有分片中可见性超时的消息：投递次数未达上限的重新入队，达到上限的消息 ID 移入分片的死信 ZSET，
+     * 消息体保留，可通过 {@link #deadLetters(int)} 读取、{@link #deleteDeadLetter(String)} 删除
+     *
+     * @param maxAttempts 最大投递次数
+     * @return 重新入队与移入死信的消息总数
+     */
+    public long reap(int maxAttempts) {
+        long total = 0;
+        for (String shardKey : shardKeys) {
+            List<?> result = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_REAP,
+                    List.of(shardKey, shardKey + DelayQueue.PROCESSING_SUFFIX, shardKey + DelayQueue.RETRIES_SUFFIX,
+                            shardKey + DelayQueue.DEAD_LETTER_SUFFIX),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(maxAttempts), String.valueOf(DelayQueue.REAP_BATCH));
+            if (result == null || result.size() < 2) {
+                continue;
+            }
+            long dead = ((Number) result.get(1)).longValue();
+            if (dead > 0) {
+                log.warn("【延迟队列】{} 个消息超过最大投递次数 {}，已移入死信：{}", dead, maxAttempts, shardKey + DelayQueue.DEAD_LETTER_SUFFIX);
+            }
+            total += ((Number) result.get(0)).longValue() + dead;
+        }
+        return total;
+    }
+
+    /**
+     * 读取死信，每个分片按移入死信的时间排序
+     *
+     * @param max 每个分片最多读取的数量
+     * @return 死信消息，不含投递令牌
+     */
+    @SuppressWarnings("unchecked")
+    public List<DelayMessage> deadLetters(int max) {
+        List<DelayMessage> messages = new ArrayList<>();
+        for (String shardKey : shardKeys) {
+            List<String> result = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_DEAD_LETTERS,
+                    List.of(shardKey + DelayQueue.DEAD_LETTER_SUFFIX, shardKey + PAYLOAD_SUFFIX), String.valueOf(max));
+            if (result == null) {
+                continue;
+            }
+            for (int i = 0; i + 1 < result.size(); i += 2) {
+                messages.add(new DelayMessage(result.get(i), result.get(i + 1), null));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * 删除死信及其消息体
+     *
+     * @param id 消息 ID
+     * @return 是否删除成功
+     */
+    public boolean deleteDeadLetter(String id) {
+        String shardKey = shardKey(id);
+        Long removed = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_REMOVE,
+                List.of(shardKey + DelayQueue.DEAD_LETTER_SUFFIX, shardKey + PAYLOAD_SUFFIX, shardKey + TOKEN_SUFFIX), id);
+        return removed != null && removed > 0;
+    }
+
+    /**
+     * 清空所有分片的死信及其消息体
+     *
+     * @return 删除的死信数量
+     */
+    public long purgeDeadLetters() {
+        long total = 0;
+        for (String shardKey : shardKeys) {
+            String deadLetterKey = shardKey + DelayQueue.DEAD_LETTER_SUFFIX;
+            List<String> keys = List.of(deadLetterKey, shardKey + PAYLOAD_SUFFIX, shardKey + TOKEN_SUFFIX);
+            Set<String> ids;
+            while (!(ids = stringRedisTemplate.opsForZSet().range(deadLetterKey, 0, DelayQueue.REAP_BATCH - 1)).isEmpty()) {
+                Long removed = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_REMOVE, keys, ids.toArray());
+                total += removed == null ? 0 : removed;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 订阅分片延迟队列（至多一次投递）
+     *
+     * @param concurrency 同时处理的最大消息数
+     * @param handler     消息处理
+     * @return 消费者，调用 {@link DelayQueueConsumer#close()} 停止消费
+     */
+    public DelayQueueConsumer<DelayMessage> subscribe(int concurrency, Consumer<DelayMessage> handler) {
+        DelayQueueConsumer<DelayMessage> consumer = new DelayQueueConsumer<>(topic, concurrency, this::popBatch, handler);
+        consumer.start();
+        return consumer;
+    }
+
+    /**
+     * 订阅分片延迟队列（至少一次投递），处理正常返回后自动确认
+     *
+     * @param concurrency       同时处理的最大消息数
+     * @param visibilityTimeout 可见性超时时间，应大于单个消息的最长处理时间
+     * @param maxAttempts       最大投递次数
+     * @param handler           消息处理，须幂等
+     * @return 消费者，调用 {@link DelayQueueConsumer#close()} 停止消费
+     */
+    public DelayQueueConsumer<DelayMessage> subscribe(int concurrency, Duration visibilityTimeout, int maxAttempts,
+                                                      Consumer<DelayMessage> handler) {
+        DelayQueueConsumer<DelayMessage> consumer = new DelayQueueConsumer<>(topic, concurrency, max -> reserveBatch(max, visibilityTimeout),
+                handler, this::ack, () -> reap(maxAttempts), Math.max(visibilityTimeout.toMillis() / 2, 100));
+        consumer.start();
+        return consumer;
+    }
+
+    /**
+     * 消息所在的分片 key
+     *
+     * @param id 消息 ID
+     * @return 分片 key
+     */
+    public String shardKey(String id) {
+        return shardKeys[Math.floorMod(id.hashCode(), shardKeys.length)];
+    }
+
+    /**
+     * 从轮转的起始分片开始依次拉取有到期消息的分片，直至拉满或所有分片均已拉取一次
+     */
+    private List<DelayMessage> poll(int max, String visibilityDeadline) {
+        long now = System.currentTimeMillis();
+        List<Object> due = probe(now);
+        List<DelayMessage> messages = new ArrayList<>();
+        int start = Math.floorMod(cursor.getAndIncrement(), shardKeys.length);
+        for (int i = 0; i < shardKeys.length && messages.size() < max; i++) {
+            int shard = (start + i) % shardKeys.length;
+            if (due.get(shard) instanceof Long count && count == 0) {
+                continue;
+            }
+            String shardKey = shardKeys[shard];
+            List<?> result = stringRedisTemplate.execute(RedisScripts.DELAY_QUEUE_SHARD_POP,
+                    List.of(shardKey, shardKey + PAYLOAD_SUFFIX, shardKey + DelayQueue.PROCESSING_SUFFIX, shardKey + TOKEN_SUFFIX),
+                    String.valueOf(now), String.valueOf(max - messages.size()), visibilityDeadline);
+            if (result == null) {
+                continue;
+            }
+            for (int j = 0; j + 2 < result.size(); j += 3) {
+                messages.add(new DelayMessage((String) result.get(j), (String) result.get(j + 1), (String) result.get(j + 2)));
+            }
+        }
+        return messages;
+    }
+
+    /**
+     * 通过一次管道往返统计各分片的到期消息数，所有分片都没有到期消息时无需逐个拉取
+     *
+     * @param now 当前时间戳（单位：毫秒）
+     * @return 按分片顺序排列的到期消息数
+     */
+    private List<Object> probe(long now) {
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (String shardKey : shardKeys) {
+                stringConnection.zCount(shardKey, 0, now);
+            }
+            return null;
+        });
+    }
+
+}
@@ -0,0 +1,294 @@
+package ext.library.redis.client;
+
+import ext.library.util.VirtualThreadUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <h2>分层时间轮</h2>
+ * 本地定时器，添加定时任务的时间复杂度为 O(1)，适用于大量短延迟定时任务
+ * <p>每层时间轮有固定数量的槽，超出本层范围的任务放入上一层（每格跨度为本层总跨度）；
+ * 只有非空的槽进入 {@link java.util.concurrent.DelayQueue}，驱动线程只在槽到期时唤醒，没有空转的 tick
+ * <p>槽到期后其中的任务重新插入时间轮：已到期的在虚拟线程中执行，未到期的降级到下一层更精细的槽
+ *
+ * <blockquote>示例：
+ * <pre>
+ * {@code
+ *     TimingWheel timingWheel = new TimingWheel(1, 512);
+ *     TimingWheel.Timeout timeout = timingWheel.schedule(() -> doSomething(), 200, TimeUnit.MILLISECONDS);
+ *     timeout.cancel();
+ * }
+ * </pre>
+ * </blockquote>
+ */
+@Slf4j
+public class TimingWheel implements AutoCloseable {
+
+    /**
+     * 驱动线程等待到期槽的最长时间（单位：毫秒），用于及时响应关闭
+     */
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final java.util.concurrent.DelayQueue<Bucket> queue = new java.util.concurrent.DelayQueue<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Wheel root;
+    private final Future<?> driver;
+
+    /**
+     * @param tickMs    最底层每格的跨度（单位：毫秒），即定时精度
+     * @param wheelSize 每层时间轮的格数
+     */
+    public TimingWheel(long tickMs, int wheelSize) {
+        this.root = new Wheel(tickMs, wheelSize, nowMs());
+        this.driver = VirtualThreadUtils.submit(this::drive);
+    }
+
+    /**
+     * 添加定时任务
+     *
+     * @param task     任务，在虚拟线程中执行
+     * @param delay    延迟时间
+     * @param timeUnit 时间单位
+     * @return 定时任务句柄，可用于取消
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit timeUnit) {
+        Timeout timeout = new Timeout(task, nowMs() + timeUnit.toMillis(delay));
+        lock.readLock().lock();
+        try {
+            addOrRun(timeout);
+        } finally {
+            lock.readLock().unlock();
+        }
+        size.incrementAndGet();
+        return timeout;
+    }
+
+    /**
+     * 未执行的定时任务数（含已取消但尚未清理的任务）
+     *
+     * @return 任务数
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * 停止时间轮，未执行的定时任务不再执行
+     */
+    @Override
+    public void close() {
+        driver.cancel(true);
+    }
+
+    private void drive() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Bucket bucket = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (bucket == null) {
+                    continue;
+                }
+                lock.writeLock().lock();
+                try {
+                    while (bucket != null) {
+                        root.advanceClock(bucket.getExpiration());
+                        for (Timeout timeout : bucket.flush()) {
+                            addOrRun(timeout);
+                        }
+                        bucket = queue.poll();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void addOrRun(Timeout timeout) {
+        if (timeout.cancelled) {
+            size.decrementAndGet();
+            return;
+        }
+        if (!root.add(timeout)) {
+            size.decrementAndGet();
+            VirtualThreadUtils.execute(timeout::run);
+        }
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * 单层时间轮
+     */
+    private final class Wheel {
+
+        private final long tickMs;
+        private final int wheelSize;
+        private final long interval;
+        private final Bucket[] buckets;
+
+        /**
+         * 当前时间，按 tickMs 向下取整，仅在写锁内推进
+         */
+        private volatile long currentTime;
+
+        /**
+         * 上一层时间轮，按需创建
+         */
+        private volatile Wheel overflow;
+
+        Wheel(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.currentTime = startMs - (startMs % tickMs);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        /**
+         * 添加定时任务
+         *
+         * @return false 表示任务已到期，应立即执行
+         */
+        boolean add(Timeout timeout) {
+            long expiration = timeout.expirationMs;
+            if (expiration < currentTime + tickMs) {
+                return false;
+            }
+            if (expiration < currentTime + interval) {
+                long virtualId = expiration / tickMs;
+                Bucket bucket = buckets[(int) (virtualId % wheelSize)];
+                bucket.add(timeout);
+                // 槽的到期时间变化说明槽被复用到新一轮，需要重新入队
+                if (bucket.setExpiration(virtualId * tickMs)) {
+                    queue.offer(bucket);
+                }
+                return true;
+            }
+            return overflow().add(timeout);
+        }
+
+        void advanceClock(long timeMs) {
+            if (timeMs >= currentTime + tickMs) {
+                currentTime = timeMs - (timeMs % tickMs);
+                Wheel upper = overflow;
+                if (upper != null) {
+                    upper.advanceClock(currentTime);
+                }
+            }
+        }
+
+        private Wheel overflow() {
+            Wheel upper = overflow;
+            if (upper == null) {
+                synchronized (this) {
+                    upper = overflow;
+                    if (upper == null) {
+                        upper = new Wheel(interval, wheelSize, currentTime);
+                        overflow = upper;
+                    }
+                }
+            }
+            return upper;
+        }
+
+    }
+
+    /**
+     * 时间轮的槽
+     */
+    private static final class Bucket implements Delayed {
+
+        private final AtomicLong expiration = new AtomicLong(-1);
+        private final List<Timeout> timeouts = new ArrayList<>();
+
+        synchronized void add(Timeout timeout) {
+            timeouts.add(timeout);
+        }
+
+        synchronized List<Timeout> flush() {
+            List<Timeout> flushed = new ArrayList<>(timeouts);
+            timeouts.clear();
+            expiration.set(-1);
+            return flushed;
+        }
+
+        boolean setExpiration(long expirationMs) {
+            return expiration.getAndSet(expirationMs) != expirationMs;
+        }
+
+        long getExpiration() {
+            return expiration.get();
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Math.max(getExpiration() - nowMs(), 0), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getExpiration(), ((Bucket) other).getExpiration());
+        }
+
+    }
+
+    /**
+     * 定时任务句柄
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+        private final long expirationMs;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long expirationMs) {
+            this.task = task;
+            this.expirationMs = expirationMs;
+        }
+
+        /**
+         * 取消定时任务，已开始执行的任务不受影响
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * 是否已取消
+         *
+         * @return 是否已取消
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("【时间轮】定时任务执行失败", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package ext.library.redis.config;
+
+import ext.library.redis.client.DelayQueue;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+
+/**
+ * 为每个 RedisConnectionFactory Bean 注册一个 {@link DelayQueue}，Bean 名称为 {@code <连接工厂 Bean 名称>DelayQueue}
+ * <p>主连接工厂（唯一的或标记为 {@code @Primary} 的连接工厂）已由默认 delayQueue 使用，不重复注册
+ * <p>队列实例按需创建，注入时通过 {@code @Qualifier} 选择（按类型注入时使用 {@code @Primary} 的默认 delayQueue），
+ * 可将队列流量与缓存使用不同的 Redis
+ */
+@Slf4j
+public class DelayQueueBeanRegistrar implements BeanDefinitionRegistryPostProcessor {
+
+    /**
+     * 延迟队列 Bean 名称后缀
+     */
+    public static final String BEAN_NAME_SUFFIX = "DelayQueue";
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(@NonNull BeanDefinitionRegistry registry) throws BeansException {
+        if (!(registry instanceof ListableBeanFactory beanFactory)) {
+            return;
+        }
+        String[] factoryNames = beanFactory.getBeanNamesForType(RedisConnectionFactory.class, true, false);
+        for (String factoryName : factoryNames) {
+            String beanName = factoryName + BEAN_NAME_SUFFIX;
+            if (registry.containsBeanDefinition(beanName) || isPrimary(registry, factoryNames, factoryName)) {
+                continue;
+            }
+            RootBeanDefinition definition = new RootBeanDefinition(DelayQueue.class, () -> delayQueue((BeanFactory) registry, factoryName));
+            definition.setLazyInit(true);
+            registry.registerBeanDefinition(beanName, definition);
+            log.info("【Redis】Bean：{}，连接工厂：{}", beanName, factoryName);
+        }
+    }
+
+    /**
+     * 是否为主 StringRedisTemplate 使用的连接工厂
+     */
+    private static boolean isPrimary(BeanDefinitionRegistry registry, String[] factoryNames, String factoryName) {
+        if (factoryNames.length == 1) {
+            return true;
+        }
+        return registry.containsBeanDefinition(factoryName) && registry.getBeanDefinition(factoryName).isPrimary();
+    }
+
+    private static DelayQueue delayQueue(BeanFactory beanFactory, String factoryName) {
+        RedisConnectionFactory connectionFactory = beanFactory.getBean(factoryName, RedisConnectionFactory.class);
+        return new DelayQueue(new StringRedisTemplate(connectionFactory));
+    }
+
+}
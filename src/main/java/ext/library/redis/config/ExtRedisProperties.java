@@ -0,0 +1,105 @@
+package ext.library.redis.config;
+
+import ext.library.constant.Constant;
+import ext.library.redis.constant.RedisSerializerEnum;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis 自动配置属性
+ */
+@Data
+@ConfigurationProperties(ExtRedisProperties.PREFIX)
+public class ExtRedisProperties {
+
+    /**
+     * Prefix of {@link ExtRedisProperties}.
+     */
+    public static final String PREFIX = Constant.CONFIG_PREFIX + ".redis";
+
+    /**
+     * extRedisTemplate 对象序列化方式
+     * <p>
+     * 默认：jackson
+     */
+    RedisSerializerEnum serializer = RedisSerializerEnum.JACKSON;
+
+    /**
+     * fastjson2-jsonb 允许反序列化的类名前缀，如：com.example.domain.
+     * <p>使用 fastjson2-jsonb 时必须配置，未配置时启动失败
+     */
+    List<String> jsonbAcceptNames = new ArrayList<>();
+
+    /**
+     * 压缩
+     */
+    Compression compression = new Compression();
+
+    /**
+     * 近端缓存
+     */
+    NearCache nearCache = new NearCache();
+
+    /**
+     * 压缩配置
+     */
+    @Data
+    public static class Compression {
+
+        /**
+         * 是否启用压缩，序列化结果超过阈值时 GZIP 压缩后存储，兼容读取未压缩的数据
+         * <p>
+         * 默认：false
+         */
+        boolean enabled = false;
+
+        /**
+         * 压缩阈值（单位：字节）
+         * <p>
+         * 默认：1024
+         */
+        int threshold = 1024;
+
+    }
+
+    /**
+     * 近端缓存配置
+     */
+    @Data
+    public static class NearCache {
+
+        /**
+         * 是否启用近端缓存，启用后 Redis#get、Redis#getObject、Redis#hget 的结果将缓存在 JVM 内
+         * <p>
+         * 默认：false
+         */
+        boolean enabled = false;
+
+        /**
+         * 最大缓存 key 数量，超出后按 LRU 淘汰
+         * <p>
+         * 默认：10000
+         */
+        int maximumSize = 10000;
+
+        /**
+         * 缓存存活时间，也是绕过 Redis 客户端写入时缓存的最长陈旧时间
+         * <p>
+         * 默认：30s
+         */
+        Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 需要缓存的 key 前缀，如热点配置、字典 key
+         * <p>
+         * 默认：空，缓存所有 key
+         */
+        List<String> keyPrefixes = new ArrayList<>();
+
+    }
+
+}
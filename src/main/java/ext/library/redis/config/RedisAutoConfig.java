@@ -2,22 +2,31 @@ package ext.library.redis.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ext.library.idempotent.RepeatSubmitAspect;
+import ext.library.redis.client.DelayQueue;
+import ext.library.redis.client.NearCache;
 import ext.library.redis.client.Redis;
+import ext.library.redis.script.RedisScripts;
+import ext.library.redis.serializer.CompressionRedisSerializer;
+import ext.library.redis.serializer.FastJson2JsonbRedisSerializer;
 import ext.library.util.SpringUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
@@ -26,37 +35,110 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
-@Import(RepeatSubmitAspect.class)
 @AutoConfigureAfter(RedisAutoConfiguration.class)
+@EnableConfigurationProperties(ExtRedisProperties.class)
 public class RedisAutoConfig {
 
+    final ExtRedisProperties extRedisProperties;
+
 
     /**
-     * <p>支持 FastJson 进行 Redis 存储对象序列/反序列化
+     * <p>支持 Jackson 或 FastJson2 JSONB 进行 Redis 存储对象序列/反序列化，可选超过阈值时压缩
      * <p><a href="https://github.com/alibaba/fastjson2/blob/main/docs/spring_support_cn.md">在 Spring 中集成 Fastjson2</a>
      */
     @Bean
     public RedisTemplate<String, Object> extRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
-        // 支持Jackson进行Redis存储对象序列/反序列化
-        ObjectMapper objectMapper = SpringUtils.getBean(ObjectMapper.class);
-        GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
-        redisTemplate.setDefaultSerializer(jsonRedisSerializer);
+        RedisSerializer<Object> valueSerializer = valueSerializer();
         StringRedisSerializer stringRedisSerializer = new StringRedisSerializer();
         redisTemplate.setKeySerializer(stringRedisSerializer);
         redisTemplate.setHashKeySerializer(stringRedisSerializer);
-        redisTemplate.setDefaultSerializer(jsonRedisSerializer);
+        redisTemplate.setDefaultSerializer(valueSerializer);
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
 
+    private RedisSerializer<Object> valueSerializer() {
+        RedisSerializer<Object> serializer = switch (extRedisProperties.getSerializer()) {
+            // 支持 Jackson 进行 Redis 存储对象序列/反序列化
+            case JACKSON -> new GenericJackson2JsonRedisSerializer(SpringUtils.getBean(ObjectMapper.class));
+            // 支持 FastJson2 JSONB 进行 Redis 存储对象序列/反序列化
+            case FASTJSON2_JSONB -> {
+                if (extRedisProperties.getJsonbAcceptNames().isEmpty()) {
+                    throw new IllegalStateException("【Redis】使用 fastjson2-jsonb 序列化时必须配置允许反序列化的类名前缀："
+                            + ExtRedisProperties.PREFIX + ".jsonb-accept-names");
+                }
+                yield new FastJson2JsonbRedisSerializer(extRedisProperties.getJsonbAcceptNames().toArray(String[]::new));
+            }
+        };
+        log.info("【Redis】配置项：{}，对象序列化方式：{}", ExtRedisProperties.PREFIX + ".serializer", extRedisProperties.getSerializer());
+
+        ExtRedisProperties.Compression compression = extRedisProperties.getCompression();
+        if (compression.isEnabled()) {
+            log.info("【Redis】配置项：{}，超过 {} 字节的对象压缩存储", ExtRedisProperties.PREFIX + ".compression", compression.getThreshold());
+            return new CompressionRedisSerializer<>(serializer, compression.getThreshold());
+        }
+        return serializer;
+    }
+
+    /**
+     * Redis 消息监听容器，监听器在虚拟线程中执行
+     */
+    @Bean
+    public RedisMessageListenerContainer extRedisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.setTaskExecutor(new VirtualThreadTaskExecutor("redis-listener-"));
+        return container;
+    }
+
     @Bean
     @Primary
     @ConditionalOnBean({RedisTemplate.class, StringRedisTemplate.class})
-    public Redis redis(@Qualifier("extRedisTemplate") RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate) {
+    public Redis redis(@Qualifier("extRedisTemplate") RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                       @Qualifier("extRedisMessageListenerContainer") RedisMessageListenerContainer container) {
         log.info("【Redis】Bean：Redis。执行初始化 ...");
-        return new Redis(redisTemplate, stringRedisTemplate);
+        Redis redis = new Redis(redisTemplate, stringRedisTemplate);
+        // 预加载内置 Lua 脚本
+        RedisScripts.load(stringRedisTemplate);
+        // 订阅锁释放通知，唤醒 tryLock 本地等待者
+        redis.subscribeLockRelease(container);
+        ExtRedisProperties.NearCache nearCache = extRedisProperties.getNearCache();
+        if (nearCache.isEnabled()) {
+            log.info("【Redis】配置项：{}，启用近端缓存 ...", ExtRedisProperties.PREFIX + ".near-cache");
+            redis.enableNearCache(new NearCache(nearCache.getMaximumSize(), nearCache.getTtl(), nearCache.getKeyPrefixes()), container);
+        }
+        return redis;
+    }
+
+    /**
+     * 默认延迟队列，使用主 StringRedisTemplate
+     */
+    @Bean
+    @Primary
+    @ConditionalOnBean(StringRedisTemplate.class)
+    public DelayQueue delayQueue(StringRedisTemplate stringRedisTemplate) {
+        log.info("【Redis】Bean：DelayQueue。执行初始化 ...");
+        return new DelayQueue(stringRedisTemplate);
+    }
+
+    /**
+     * 为每个 RedisConnectionFactory 注册延迟队列
+     */
+    @Bean
+    public static DelayQueueBeanRegistrar delayQueueBeanRegistrar() {
+        return new DelayQueueBeanRegistrar();
+    }
+
+    /**
+     * 防止重复提交切面
+     */
+    @Bean
+    @ConditionalOnBean(Redis.class)
+    public RepeatSubmitAspect repeatSubmitAspect(Redis redis, BeanFactory beanFactory) {
+        log.info("【幂等性】添加幂等性功能。");
+        return new RepeatSubmitAspect(redis, beanFactory);
     }
 
 }
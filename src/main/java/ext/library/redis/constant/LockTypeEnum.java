@@ -0,0 +1,38 @@
+package ext.library.redis.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Redis 分布式锁类型
+ */
+@Getter
+@AllArgsConstructor
+public enum LockTypeEnum {
+
+    /**
+     * 互斥锁，不可重入
+     */
+    SIMPLE(""),
+
+    /**
+     * 可重入互斥锁，同一持有者（节点 + 线程）可重复加锁
+     */
+    REENTRANT("reentrant:"),
+
+    /**
+     * 读锁，读者之间共享
+     */
+    READ("rw:"),
+
+    /**
+     * 写锁，与读锁、其他写锁互斥，同一持有者可重入
+     */
+    WRITE("rw:");
+
+    /**
+     * Redis 锁 key 的类型前缀，读写锁共用同一个 key
+     */
+    private final String keyPrefix;
+
+}
@@ -22,6 +22,16 @@ public class RedisConstant {
      */
     public static final String LOCK_KEY_PREFIX = RedisConstant.standardKey("lock:");
 
+    /**
+     * Redis 锁释放通知的频道
+     */
+    public static final String LOCK_RELEASE_CHANNEL = RedisConstant.standardKey("lock-released");
+
+    /**
+     * Redis 近端缓存失效通知的频道
+     */
+    public static final String NEAR_CACHE_INVALIDATE_CHANNEL = RedisConstant.standardKey("near-cache-invalidate");
+
     /**
      * Redis Token 的 Key 前缀
      */
@@ -0,0 +1,18 @@
+package ext.library.redis.constant;
+
+/**
+ * Redis 对象序列化方式
+ */
+public enum RedisSerializerEnum {
+
+    /**
+     * Jackson JSON，写入 {@code @class} 类型信息，可读性好
+     */
+    JACKSON,
+
+    /**
+     * Fastjson2 JSONB，紧凑的二进制格式，体积更小、速度更快
+     */
+    FASTJSON2_JSONB
+
+}
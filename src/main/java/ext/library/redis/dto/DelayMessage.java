@@ -0,0 +1,30 @@
+package ext.library.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 分片延迟队列消息
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DelayMessage {
+
+    /**
+     * 消息 ID，决定消息所在的分片，同一 ID 重复推送时覆盖
+     */
+    String id;
+
+    /**
+     * 消息体
+     */
+    String payload;
+
+    /**
+     * 投递令牌，每次推送生成，确认时校验，避免确认旧的投递时删除同一 ID 重新推送的消息体
+     */
+    String deliveryToken;
+
+}
@@ -1,6 +1,6 @@
 package ext.library.redis.dto;
 
-import ext.library.util.DateUtils;
+import ext.library.redis.constant.LockTypeEnum;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
@@ -11,6 +11,11 @@ import lombok.Data;
 @Data
 public class LockInfo {
 
+    /**
+     * 锁类型
+     */
+    LockTypeEnum type = LockTypeEnum.SIMPLE;
+
     /**
      * 是否成功拿到锁
      */
@@ -27,8 +32,20 @@ public class LockInfo {
     @NotBlank Integer lockTimeoutMs;
 
     /**
-     * 分布式锁的超时时间戳（<code style="color:red">当前时间戳 + 超时毫秒</code>，即：{@link DateUtils#getTimestamp(int)} + {@link #lockTimeoutMs}）
+     * 锁持有者标识，解锁与续期时只有持有者才能操作成功
+     * <p>互斥锁每次加锁唯一；可重入锁与读写锁为节点 + 线程标识
+     */
+    @NotBlank String owner;
+
+    /**
+     * 防护令牌（fencing token），每次成功加锁单调递增
+     * <p>下游存储可拒绝小于已见令牌的写入，避免锁过期后旧持有者的延迟写入覆盖新持有者
+     */
+    long fencingToken;
+
+    /**
+     * 是否启用看门狗自动续期
      */
-    @NotBlank String lockTimeoutStamp;
+    boolean watchdog;
 
 }
@@ -0,0 +1,499 @@
+package ext.library.redis.script;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * <h2>内置 Lua 脚本注册表</h2>
+ * 限流、分布式锁、延迟队列、防重提交使用的 Lua 脚本统一在此定义，每个脚本只创建一次，SHA1 在首次使用时计算后缓存
+ * <p>通过 {@link StringRedisTemplate#execute(RedisScript, List, Object...)} 执行时以 EVALSHA 发送，
+ * Redis 返回 NOSCRIPT（如重启、SCRIPT FLUSH、故障转移）时自动以 EVAL 重新发送并加载脚本，调用方无感知
+ * <p>分布式锁脚本约定：KEYS[1] 为锁 key，KEYS[2] 为防护令牌计数器 key；
+ * 加锁成功返回防护令牌（&gt; 0），失败返回当前持有者剩余超时时间的相反数（&lt;= 0）；
+ * 可重入锁与读写锁使用 Hash 存储，field 为持有者标识，value 为持有次数
+ */
+@Slf4j
+public final class RedisScripts {
+
+    // 限流，约定：KEYS[1] 限流 key，ARGV[1] 窗口内允许的请求数，ARGV[2] 窗口时长（单位：毫秒）；返回 0 表示超出限制
+
+    /**
+     * 限流 - 固定窗口计数
+     * <p>仅在窗口内首次请求时设置过期时间，窗口到期后计数归零；返回当前计数
+     */
+    public static final RedisScript<Long> RATE_LIMIT_FIXED_WINDOW = new DefaultRedisScript<>("""
+            local current = redis.call('incr', KEYS[1])
+            if current == 1 or redis.call('pttl', KEYS[1]) < 0 then
+                redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            if current > tonumber(ARGV[1]) then
+                return 0
+            end
+            return current
+            """, Long.class);
+
+    /**
+     * 限流 - 批量领取许可（租约模式）：ARGV[3] 期望领取的许可数
+     * <p>与固定窗口共用同一计数器，领取数量不超过窗口内剩余许可；返回 {领取到的许可数, 窗口剩余毫秒数}
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> RATE_LIMIT_LEASE = new DefaultRedisScript<>("""
+            local current = tonumber(redis.call('get', KEYS[1]) or '0')
+            local granted = math.min(tonumber(ARGV[1]) - current, tonumber(ARGV[3]))
+            if granted <= 0 then
+                return {0, redis.call('pttl', KEYS[1])}
+            end
+            redis.call('incrby', KEYS[1], granted)
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl < 0 then
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                ttl = tonumber(ARGV[2])
+            end
+            return {granted, ttl}
+            """, List.class);
+
+    /**
+     * 限流 - 滑动窗口日志：ARGV[3] 本次请求的唯一标识
+     * <p>使用 ZSET 记录窗口内每次放行的时间（Redis 服务器时间），统计最近一个窗口内的请求数，不存在窗口边界的突发；返回当前计数
+     */
+    public static final RedisScript<Long> RATE_LIMIT_SLIDING_WINDOW = new DefaultRedisScript<>("""
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[2])
+            redis.call('zremrangebyscore', KEYS[1], 0, now - window)
+            local count = redis.call('zcard', KEYS[1])
+            if count >= tonumber(ARGV[1]) then
+                return 0
+            end
+            redis.call('zadd', KEYS[1], now, ARGV[3])
+            redis.call('pexpire', KEYS[1], window)
+            return count + 1
+            """, Long.class);
+
+    /**
+     * 限流 - GCRA（通用信元速率算法，等价于令牌桶）
+     * <p>只存储一个理论到达时间（TAT，单位：微秒），请求按 窗口时长 / 请求数 的间隔（至少 1 微秒）均匀放行，允许突发至多 ARGV[1] 个请求；
+     * 放行返回剩余可突发的请求数 + 1
+     */
+    public static final RedisScript<Long> RATE_LIMIT_GCRA = new DefaultRedisScript<>("""
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local limit = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2]) * 1000
+            local interval = math.max(math.floor(window / limit), 1)
+            local tat = tonumber(redis.call('get', KEYS[1]) or now)
+            if tat < now then
+                tat = now
+            end
+            local newTat = tat + interval
+            if newTat - window > now then
+                return 0
+            end
+            redis.call('set', KEYS[1], string.format('%d', newTat), 'PX', math.max(math.ceil((newTat - now) / 1000), 1))
+            return math.floor((window - (newTat - now)) / interval) + 1
+            """, Long.class);
+
+    // 分布式锁
+
+    /**
+     * 防护令牌：KEYS[2] 令牌计数器
+     * <p>计数器每次加锁时续期，空闲过期后以 Redis 服务器当前毫秒时间戳重新起算，令牌仍单调递增
+     */
+    private static final String FENCING_TOKEN = """
+            local function fencingToken(ttl, increase)
+                local token = redis.call('get', KEYS[2])
+                if token == false then
+                    local now = redis.call('time')
+                    redis.call('set', KEYS[2], string.format('%d', now[1] * 1000 + math.floor(now[2] / 1000)))
+                    increase = true
+                end
+                if increase then
+                    token = redis.call('incr', KEYS[2])
+                end
+                redis.call('pexpire', KEYS[2], ttl)
+                return tonumber(token)
+            end
+            """;
+
+    /**
+     * 互斥锁 - 加锁：ARGV[1] 持有者，ARGV[2] 超时毫秒，ARGV[3] 防护令牌计数器超时毫秒
+     */
+    public static final RedisScript<Long> LOCK = new DefaultRedisScript<>(FENCING_TOKEN + """
+            if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return fencingToken(ARGV[3], true)
+            end
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl < 0 then
+                ttl = 0
+            end
+            return -ttl
+            """, Long.class);
+
+    /**
+     * 互斥锁 - 解锁：ARGV[1] 持有者，ARGV[2] 锁释放通知频道；返回 1 解锁成功，0 非持有者
+     */
+    public static final RedisScript<Long> UNLOCK = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                redis.call('del', KEYS[1])
+                redis.call('publish', ARGV[2], KEYS[1])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 互斥锁 - 续期：ARGV[1] 持有者，ARGV[2] 超时毫秒
+     */
+    public static final RedisScript<Long> RENEW = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 可重入锁 - 加锁：ARGV[1] 持有者，ARGV[2] 超时毫秒，ARGV[3] 防护令牌计数器超时毫秒
+     * <p>首次加锁递增防护令牌，重入时返回当前令牌
+     */
+    public static final RedisScript<Long> REENTRANT_LOCK = new DefaultRedisScript<>(FENCING_TOKEN + """
+            if redis.call('exists', KEYS[1]) == 0 then
+                redis.call('hset', KEYS[1], ARGV[1], 1)
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                return fencingToken(ARGV[3], true)
+            end
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                redis.call('hincrby', KEYS[1], ARGV[1], 1)
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                return fencingToken(ARGV[3], false)
+            end
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl < 0 then
+                ttl = 0
+            end
+            return -ttl
+            """, Long.class);
+
+    /**
+     * 读锁 - 加锁：KEYS[3] 写意向，ARGV[1] 读持有者，ARGV[2] 超时毫秒，ARGV[3] 防护令牌计数器超时毫秒，ARGV[4] 同一持有者的写持有者标识
+     * <p>无锁或已处于读模式时可加读锁，但有写者等待（存在写意向）时只允许已持有读锁的读者重入，避免写者饥饿；
+     * 当前持有者已持有写锁（降级）时始终可加读锁。所有读者共享锁的超时时间
+     */
+    public static final RedisScript<Long> READ_LOCK = new DefaultRedisScript<>(FENCING_TOKEN + """
+            local mode = redis.call('hget', KEYS[1], 'mode')
+            if redis.call('hexists', KEYS[1], ARGV[4]) == 1
+                    or ((mode == false or mode == 'read')
+                        and (redis.call('exists', KEYS[3]) == 0 or redis.call('hexists', KEYS[1], ARGV[1]) == 1)) then
+                if mode == false then
+                    redis.call('hset', KEYS[1], 'mode', 'read')
+                end
+                redis.call('hincrby', KEYS[1], ARGV[1], 1)
+                if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then
+                    redis.call('pexpire', KEYS[1], ARGV[2])
+                end
+                return fencingToken(ARGV[3], false)
+            end
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl < 0 then
+                ttl = redis.call('pttl', KEYS[3])
+            end
+            if ttl < 0 then
+                ttl = 0
+            end
+            return -ttl
+            """, Long.class);
+
+    /**
+     * 写锁 - 加锁：KEYS[3] 写意向，ARGV[1] 写持有者，ARGV[2] 超时毫秒，ARGV[3] 防护令牌计数器超时毫秒，ARGV[4] 写意向超时毫秒
+     * <p>无锁或当前持有者已持有写锁（重入）时可加写锁；加锁失败且写意向超时大于 0 时登记写意向，阻止新读者加锁，
+     * 加锁成功后删除自己登记的写意向
+     */
+    public static final RedisScript<Long> WRITE_LOCK = new DefaultRedisScript<>(FENCING_TOKEN + """
+            local mode = redis.call('hget', KEYS[1], 'mode')
+            if mode == false then
+                redis.call('hset', KEYS[1], 'mode', 'write', ARGV[1], 1)
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                if redis.call('get', KEYS[3]) == ARGV[1] then
+                    redis.call('del', KEYS[3])
+                end
+                return fencingToken(ARGV[3], true)
+            end
+            if mode == 'write' and redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                redis.call('hincrby', KEYS[1], ARGV[1], 1)
+                redis.call('pexpire', KEYS[1], ARGV[2])
+                return fencingToken(ARGV[3], false)
+            end
+            if tonumber(ARGV[4]) > 0 then
+                local intent = redis.call('get', KEYS[3])
+                if intent == false or intent == ARGV[1] then
+                    redis.call('set', KEYS[3], ARGV[1], 'PX', ARGV[4])
+                end
+            end
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl < 0 then
+                ttl = 0
+            end
+            return -ttl
+            """, Long.class);
+
+    /**
+     * Hash 锁（可重入锁、读写锁）- 解锁：ARGV[1] 持有者，ARGV[2] 超时毫秒，ARGV[3] 锁释放通知频道，ARGV[4] 是否为写锁
+     * <p>返回剩余持有次数，-1 表示非持有者；锁完全释放或写锁降级为读锁时发布锁释放通知
+     * <p>仍有持有次数时只延长超时时间，不缩短其他读者共享的超时时间
+     */
+    public static final RedisScript<Long> HASH_UNLOCK = new DefaultRedisScript<>("""
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 0 then
+                return -1
+            end
+            local count = redis.call('hincrby', KEYS[1], ARGV[1], -1)
+            if count > 0 then
+                if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then
+                    redis.call('pexpire', KEYS[1], ARGV[2])
+                end
+                return count
+            end
+            redis.call('hdel', KEYS[1], ARGV[1])
+            local fields = redis.call('hlen', KEYS[1])
+            if fields == 0 or (fields == 1 and redis.call('hexists', KEYS[1], 'mode') == 1) then
+                redis.call('del', KEYS[1])
+                redis.call('publish', ARGV[3], KEYS[1])
+                return 0
+            end
+            if ARGV[4] == '1' then
+                redis.call('hset', KEYS[1], 'mode', 'read')
+                redis.call('publish', ARGV[3], KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * Hash 锁（可重入锁、读写锁）- 续期：ARGV[1] 持有者，ARGV[2] 超时毫秒
+     * <p>只延长超时时间，不缩短其他读者共享的超时时间
+     */
+    public static final RedisScript<Long> HASH_RENEW = new DefaultRedisScript<>("""
+            if redis.call('hexists', KEYS[1], ARGV[1]) == 1 then
+                if redis.call('pttl', KEYS[1]) < tonumber(ARGV[2]) then
+                    redis.call('pexpire', KEYS[1], ARGV[2])
+                end
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    // 延迟队列
+
+    /**
+     * 延迟队列 - 批量弹出到期元素：KEYS[1] 队列 key，ARGV[1] 当前时间戳（单位：毫秒），ARGV[2] 最多弹出的数量
+     * <p>查询与删除在同一脚本内原子执行，多个消费者不会弹出同一元素；返回按到期时间排序的元素，无到期元素时返回空列表
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> DELAY_QUEUE_POP = new DefaultRedisScript<>("""
+            local values = redis.call('zrangebyscore', KEYS[1], 0, ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #values > 0 then
+                redis.call('zrem', KEYS[1], unpack(values))
+            end
+            return values
+            """, List.class);
+
+    /**
+     * 延迟队列 - 批量领取到期元素（至少一次投递）：KEYS[1] 队列 key，KEYS[2] 处理中 key，
+     * ARGV[1] 当前时间戳（单位：毫秒），ARGV[2] 最多领取的数量，ARGV[3] 可见性截止时间戳（单位：毫秒）
+     * <p>元素从队列原子移入处理中 ZSET，分数为可见性截止时间，确认前不会被其他消费者领取；返回领取到的元素
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> DELAY_QUEUE_RESERVE = new DefaultRedisScript<>("""
+            local values = redis.call('zrangebyscore', KEYS[1], 0, ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #values > 0 then
+                redis.call('zrem', KEYS[1], unpack(values))
+                for i = 1, #values do
+                    redis.call('zadd', KEYS[2], ARGV[3], values[i])
+                end
+            end
+            return values
+            """, List.class);
+
+    /**
+     * 延迟队列 - 确认处理完成：KEYS[1] 处理中 key，KEYS[2] 重试次数 key，ARGV[1] 元素
+     * <p>返回 1 确认成功，0 元素已不在处理中（如可见性超时后已重新入队）
+     */
+    public static final RedisScript<Long> DELAY_QUEUE_ACK = new DefaultRedisScript<>("""
+            local removed = redis.call('zrem', KEYS[1], ARGV[1])
+            redis.call('hdel', KEYS[2], ARGV[1])
+            return removed
+            """, Long.class);
+
+    /**
+     * 延迟队列 - 回收可见性超时的元素：KEYS[1] 队列 key，KEYS[2] 处理中 key，KEYS[3] 重试次数 key，KEYS[4] 死信 key，
+     * ARGV[1] 当前时间戳（单位：毫秒），ARGV[2] 最大投递次数，ARGV[3] 单次最多回收的数量
+     * <p>投递次数未达上限的元素立即重新入队，达到上限的元素移入死信 ZSET（分数为移入时间）；返回 {重新入队数量, 移入死信数量}
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> DELAY_QUEUE_REAP = new DefaultRedisScript<>("""
+            local values = redis.call('zrangebyscore', KEYS[2], 0, ARGV[1], 'LIMIT', 0, ARGV[3])
+            local requeued = 0
+            local dead = 0
+            for i = 1, #values do
+                redis.call('zrem', KEYS[2], values[i])
+                if redis.call('hincrby', KEYS[3], values[i], 1) >= tonumber(ARGV[2]) then
+                    redis.call('hdel', KEYS[3], values[i])
+                    redis.call('zadd', KEYS[4], ARGV[1], values[i])
+                    dead = dead + 1
+                else
+                    redis.call('zadd', KEYS[1], ARGV[1], values[i])
+                    requeued = requeued + 1
+                end
+            end
+            return {requeued, dead}
+            """, List.class);
+
+    /**
+     * 分片延迟队列 - 推送：KEYS[1] 分片 key，KEYS[2] 消息体 key，KEYS[3] 投递令牌 key，KEYS[4] 处理中 key，KEYS[5] 重试次数 key，
+     * KEYS[6] 死信 key，ARGV[1] 到期时间戳（单位：毫秒），ARGV[2] 消息 ID，ARGV[3] 消息体，ARGV[4] 投递令牌
+     * <p>ZSET 只存储消息 ID，消息体与投递令牌存储在同一分片的 Hash 中；同一 ID 正在处理或已在死信中时，新的推送取代旧的投递
+     */
+    public static final RedisScript<Long> DELAY_QUEUE_SHARD_PUSH = new DefaultRedisScript<>("""
+            redis.call('hset', KEYS[2], ARGV[2], ARGV[3])
+            redis.call('hset', KEYS[3], ARGV[2], ARGV[4])
+            redis.call('zrem', KEYS[4], ARGV[2])
+            redis.call('hdel', KEYS[5], ARGV[2])
+            redis.call('zrem', KEYS[6], ARGV[2])
+            return redis.call('zadd', KEYS[1], ARGV[1], ARGV[2])
+            """, Long.class);
+
+    /**
+     * 分片延迟队列 - 删除：KEYS[1] 分片 key 或死信 key，KEYS[2] 消息体 key，KEYS[3] 投递令牌 key，ARGV 消息 ID
+     * <p>只删除仍在 KEYS[1] 中的消息的消息体与投递令牌；返回删除的消息数
+     */
+    public static final RedisScript<Long> DELAY_QUEUE_SHARD_REMOVE = new DefaultRedisScript<>("""
+            local removed = 0
+            for i = 1, #ARGV do
+                if redis.call('zrem', KEYS[1], ARGV[i]) == 1 then
+                    redis.call('hdel', KEYS[2], ARGV[i])
+                    redis.call('hdel', KEYS[3], ARGV[i])
+                    removed = removed + 1
+                end
+            end
+            return removed
+            """, Long.class);
+
+    /**
+     * 分片延迟队列 - 确认处理完成：KEYS[1] 处理中 key，KEYS[2] 重试次数 key，KEYS[3] 消息体 key，KEYS[4] 投递令牌 key，
+     * ARGV[1] 消息 ID，ARGV[2] 投递令牌
+     * <p>投递令牌不一致（同一 ID 已重新推送）时不做任何修改；返回 1 确认成功，0 消息已不在处理中或已被重新推送
+     */
+    public static final RedisScript<Long> DELAY_QUEUE_SHARD_ACK = new DefaultRedisScript<>("""
+            if redis.call('hget', KEYS[4], ARGV[1]) ~= ARGV[2] then
+                return 0
+            end
+            local removed = redis.call('zrem', KEYS[1], ARGV[1])
+            redis.call('hdel', KEYS[2], ARGV[1])
+            if removed == 1 then
+                redis.call('hdel', KEYS[3], ARGV[1])
+                redis.call('hdel', KEYS[4], ARGV[1])
+            end
+            return removed
+            """, Long.class);
+
+    /**
+     * 分片延迟队列 - 读取死信：KEYS[1] 死信 key，KEYS[2] 消息体 key，ARGV[1] 最多读取的数量
+     * <p>按移入死信的时间排序，返回 {ID1, 消息体1, ID2, 消息体2, ...}，消息体缺失时为空字符串
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> DELAY_QUEUE_SHARD_DEAD_LETTERS = new DefaultRedisScript<>("""
+            local ids = redis.call('zrange', KEYS[1], 0, tonumber(ARGV[1]) - 1)
+            if #ids == 0 then
+                return ids
+            end
+            local payloads = redis.call('hmget', KEYS[2], unpack(ids))
+            local result = {}
+            for i = 1, #ids do
+                result[#result + 1] = ids[i]
+                result[#result + 1] = payloads[i] or ''
+            end
+            return result
+            """, List.class);
+
+    /**
+     * 分片延迟队列 - 批量弹出到期消息：KEYS[1] 分片 key，KEYS[2] 消息体 key，KEYS[3] 处理中 key，KEYS[4] 投递令牌 key，
+     * ARGV[1] 当前时间戳（单位：毫秒），ARGV[2] 最多弹出的数量，ARGV[3] 可见性截止时间戳（单位：毫秒，为空表示至多一次投递）
+     * <p>至多一次投递时同时删除消息体与投递令牌；至少一次投递时消息 ID 移入处理中 ZSET，消息体在确认时删除；
+     * 返回 {ID1, 消息体1, 令牌1, ID2, 消息体2, 令牌2, ...}，跳过消息体缺失的消息
+     */
+    @SuppressWarnings("rawtypes")
+    public static final RedisScript<List> DELAY_QUEUE_SHARD_POP = new DefaultRedisScript<>("""
+            local ids = redis.call('zrangebyscore', KEYS[1], 0, ARGV[1], 'LIMIT', 0, ARGV[2])
+            if #ids == 0 then
+                return ids
+            end
+            redis.call('zrem', KEYS[1], unpack(ids))
+            local payloads = redis.call('hmget', KEYS[2], unpack(ids))
+            local tokens = redis.call('hmget', KEYS[4], unpack(ids))
+            if ARGV[3] == '' then
+                redis.call('hdel', KEYS[2], unpack(ids))
+                redis.call('hdel', KEYS[4], unpack(ids))
+            end
+            local result = {}
+            for i = 1, #ids do
+                if payloads[i] then
+                    if ARGV[3] ~= '' then
+                        redis.call('zadd', KEYS[3], ARGV[3], ids[i])
+                    end
+                    result[#result + 1] = ids[i]
+                    result[#result + 1] = payloads[i]
+                    result[#result + 1] = tokens[i] or ''
+                end
+            end
+            return result
+            """, List.class);
+
+    // 防重提交
+
+    /**
+     * 比较并删除：KEYS[1] key，ARGV[1] 期望值；值相等时删除，返回 1，否则返回 0
+     * <p>用于防重提交释放时只删除自己写入的标记，避免标记过期后误删其他请求的标记
+     */
+    public static final RedisScript<Long> COMPARE_AND_DELETE = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 所有内置脚本
+     */
+    private static final List<RedisScript<?>> SCRIPTS = List.of(RATE_LIMIT_FIXED_WINDOW, RATE_LIMIT_SLIDING_WINDOW, RATE_LIMIT_GCRA, RATE_LIMIT_LEASE, LOCK, UNLOCK, RENEW, REENTRANT_LOCK, READ_LOCK,
+            WRITE_LOCK, HASH_UNLOCK, HASH_RENEW, DELAY_QUEUE_POP, DELAY_QUEUE_RESERVE,
+            DELAY_QUEUE_ACK, DELAY_QUEUE_REAP, DELAY_QUEUE_SHARD_PUSH, DELAY_QUEUE_SHARD_REMOVE, DELAY_QUEUE_SHARD_ACK,
+            DELAY_QUEUE_SHARD_DEAD_LETTERS, DELAY_QUEUE_SHARD_POP,
+            COMPARE_AND_DELETE);
+
+    private RedisScripts() {
+    }
+
+    /**
+     * 预加载所有内置脚本（SCRIPT LOAD），使首次调用即命中 EVALSHA
+     * <p>加载失败不影响使用，执行时将自动回退为 EVAL
+     *
+     * @param stringRedisTemplate 执行脚本加载的 RedisTemplate
+     */
+    public static void load(StringRedisTemplate stringRedisTemplate) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                for (RedisScript<?> script : SCRIPTS) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            log.info("【Redis】预加载 Lua 脚本 {} 个", SCRIPTS.size());
+        } catch (Exception e) {
+            log.warn("【Redis】预加载 Lua 脚本失败，将在首次执行时加载：{}", e.getMessage());
+        }
+    }
+
+}
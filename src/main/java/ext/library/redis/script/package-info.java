@@ -0,0 +1,4 @@
+/**
+ * redis Lua 脚本
+ */
+package ext.library.redis.script;
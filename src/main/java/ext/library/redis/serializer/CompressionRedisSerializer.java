@@ -0,0 +1,53 @@
+package ext.library.redis.serializer;
+
+import cn.hutool.core.util.ZipUtil;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 压缩 Redis 序列化器
+ * <p>包装其他序列化器，序列化结果超过阈值时使用 GZIP 压缩，以节约 Redis 内存
+ * <p>反序列化时按 GZIP 魔数识别是否压缩，兼容开启压缩前写入的未压缩数据
+ *
+ * @param <T> 序列化对象类型
+ */
+public class CompressionRedisSerializer<T> implements RedisSerializer<T> {
+
+    /**
+     * GZIP 魔数
+     */
+    private static final byte GZIP_MAGIC_0 = (byte) 0x1f;
+    private static final byte GZIP_MAGIC_1 = (byte) 0x8b;
+
+    private final RedisSerializer<T> delegate;
+    private final int threshold;
+
+    /**
+     * @param delegate  被包装的序列化器
+     * @param threshold 压缩阈值（单位：字节），序列化结果不小于该值时压缩
+     */
+    public CompressionRedisSerializer(RedisSerializer<T> delegate, int threshold) {
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes == null || bytes.length < threshold) {
+            return bytes;
+        }
+        byte[] compressed = ZipUtil.gzip(bytes);
+        // 压缩无收益时保留原始数据
+        return compressed.length < bytes.length ? compressed : bytes;
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null && bytes.length > 2 && bytes[0] == GZIP_MAGIC_0 && bytes[1] == GZIP_MAGIC_1) {
+            return delegate.deserialize(ZipUtil.unGzip(bytes));
+        }
+        return delegate.deserialize(bytes);
+    }
+
+}
@@ -0,0 +1,57 @@
+package ext.library.redis.serializer;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.filter.Filter;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 基于 Fastjson2 JSONB 的 Redis 序列化器
+ * <p>JSONB 为紧凑的二进制格式，相比 JSON 体积更小、序列化更快，适合缓存较大的对象图
+ * <p>与 {@link org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer} 一样写入类型信息，反序列化时还原原始类型
+ * <p>只反序列化白名单中的类型，不开启全局 autoType，避免能写入 Redis 的人借助任意类型构造反序列化利用链
+ */
+public class FastJson2JsonbRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Filter autoTypeFilter;
+
+    /**
+     * @param acceptNames 允许反序列化的类名前缀，不能为空
+     */
+    public FastJson2JsonbRedisSerializer(String... acceptNames) {
+        if (acceptNames == null || acceptNames.length == 0) {
+            throw new IllegalArgumentException("fastjson2-jsonb 序列化必须配置允许反序列化的类名前缀");
+        }
+        this.autoTypeFilter = JSONReader.autoTypeFilter(acceptNames);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return JSONB.toBytes(value, JSONWriter.Feature.WriteClassName, JSONWriter.Feature.FieldBased,
+                    JSONWriter.Feature.ReferenceDetection);
+        } catch (Exception e) {
+            throw new SerializationException("Could not serialize: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            return JSONB.parseObject(bytes, Object.class, autoTypeFilter, JSONReader.Feature.FieldBased);
+        } catch (Exception e) {
+            throw new SerializationException("Could not deserialize: " + e.getMessage(), e);
+        }
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * redis 序列化
+ */
+package ext.library.redis.serializer;
@@ -0,0 +1,48 @@
+package ext.library.util;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 方法元数据缓存
+ * <p>切面在方法首次调用时解析注解并预先计算 key 前缀、表达式、脚本等元数据，之后的调用直接读取缓存
+ *
+ * <blockquote>示例：
+ * <pre>
+ * {@code
+ *     private final MethodMetadataCache<Metadata> metadataCache = new MethodMetadataCache<>(Metadata::new);
+ *
+ *     Metadata metadata = metadataCache.get(method);
+ * }
+ * </pre>
+ * </blockquote>
+ *
+ * @param <T> 元数据类型
+ */
+public class MethodMetadataCache<T> {
+
+    private final Map<Method, T> cache = new ConcurrentHashMap<>();
+    private final Function<Method, T> resolver;
+
+    /**
+     * @param resolver 元数据解析，每个方法只调用一次；抛出异常时不缓存
+     */
+    public MethodMetadataCache(Function<Method, T> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * 获取方法元数据，首次调用时解析
+     *
+     * @param method 方法
+     * @return 元数据
+     */
+    public T get(Method method) {
+        // 命中时避免 computeIfAbsent 的加锁开销
+        T metadata = cache.get(method);
+        return metadata != null ? metadata : cache.computeIfAbsent(method, resolver);
+    }
+
+}
@@ -0,0 +1,248 @@
+package ext.library.util;
+
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * 流式 MurmurHash3 x64 128 位哈希
+ * <p>非加密哈希，适用于计算请求指纹等去重场景；数据可分多次写入，写入过程中不分配内存
+ *
+ * <blockquote>示例：
+ * <pre>
+ * {@code
+ *     Murmur3Hash128 hash = new Murmur3Hash128();
+ *     hash.putString(ip);
+ *     hash.putBytes(body, 0, body.length);
+ *     String fingerprint = hash.toHex();
+ * }
+ * </pre>
+ * </blockquote>
+ */
+public final class Murmur3Hash128 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private long h1;
+    private long h2;
+
+    /**
+     * 未满 16 字节的待处理数据
+     */
+    private long k1;
+    private long k2;
+    private int position;
+
+    /**
+     * 已写入的总字节数
+     */
+    private long length;
+
+    public Murmur3Hash128() {
+        this(0);
+    }
+
+    /**
+     * @param seed 种子
+     */
+    public Murmur3Hash128(int seed) {
+        this.h1 = seed & 0xFFFFFFFFL;
+        this.h2 = seed & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 写入一个字节
+     *
+     * @param b 字节
+     * @return this
+     */
+    public Murmur3Hash128 putByte(byte b) {
+        long value = b & 0xFFL;
+        if (position < 8) {
+            k1 |= value << (position << 3);
+        } else {
+            k2 |= value << ((position - 8) << 3);
+        }
+        length++;
+        if (++position == 16) {
+            bmix(k1, k2);
+            k1 = 0;
+            k2 = 0;
+            position = 0;
+        }
+        return this;
+    }
+
+    /**
+     * 写入字节数组
+     *
+     * @param bytes  字节数组
+     * @param offset 起始位置
+     * @param len    长度
+     * @return this
+     */
+    public Murmur3Hash128 putBytes(byte[] bytes, int offset, int len) {
+        int i = offset;
+        int end = offset + len;
+        // 补齐未满的块
+        while (position != 0 && i < end) {
+            putByte(bytes[i++]);
+        }
+        // 整块处理
+        while (end - i >= 16) {
+            bmix((long) LONG_LE.get(bytes, i), (long) LONG_LE.get(bytes, i + 8));
+            length += 16;
+            i += 16;
+        }
+        while (i < end) {
+            putByte(bytes[i++]);
+        }
+        return this;
+    }
+
+    /**
+     * 写入 int（小端序）
+     *
+     * @param value int
+     * @return this
+     */
+    public Murmur3Hash128 putInt(int value) {
+        for (int i = 0; i < 4; i++) {
+            putByte((byte) (value >>> (i << 3)));
+        }
+        return this;
+    }
+
+    /**
+     * 写入 long（小端序）
+     *
+     * @param value long
+     * @return this
+     */
+    public Murmur3Hash128 putLong(long value) {
+        for (int i = 0; i < 8; i++) {
+            putByte((byte) (value >>> (i << 3)));
+        }
+        return this;
+    }
+
+    /**
+     * 写入字符串的 UTF-16 字符，并以长度作为前缀区分相邻字符串；null 与空字符串视为不同
+     *
+     * @param value 字符串
+     * @return this
+     */
+    public Murmur3Hash128 putString(CharSequence value) {
+        if (value == null) {
+            return putInt(-1);
+        }
+        int len = value.length();
+        putInt(len);
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            putByte((byte) c);
+            putByte((byte) (c >>> 8));
+        }
+        return this;
+    }
+
+    /**
+     * 以输出流的形式写入，可将序列化结果直接写入哈希而不生成中间字符串
+     *
+     * @return 写入当前哈希的输出流，关闭无效果
+     */
+    public OutputStream asOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                putByte((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                putBytes(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * 计算哈希值，计算后不应继续写入
+     *
+     * @return 128 位哈希值，[0] 为高 64 位，[1] 为低 64 位
+     */
+    public long[] hash() {
+        long x1 = h1;
+        long x2 = h2;
+        if (position > 0) {
+            x1 ^= mixK1(k1);
+            x2 ^= mixK2(k2);
+        }
+        x1 ^= length;
+        x2 ^= length;
+        x1 += x2;
+        x2 += x1;
+        x1 = fmix64(x1);
+        x2 = fmix64(x2);
+        x1 += x2;
+        x2 += x1;
+        return new long[]{x1, x2};
+    }
+
+    /**
+     * 计算哈希值的十六进制字符串
+     *
+     * @return 32 位十六进制字符串
+     */
+    public String toHex() {
+        long[] hash = hash();
+        StringBuilder builder = new StringBuilder(32);
+        appendHex(builder, hash[0]);
+        appendHex(builder, hash[1]);
+        return builder.toString();
+    }
+
+    private static void appendHex(StringBuilder builder, long value) {
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            builder.append(Character.forDigit((int) (value >>> shift) & 0xF, 16));
+        }
+    }
+
+    private void bmix(long k1, long k2) {
+        h1 ^= mixK1(k1);
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2(k2);
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+}
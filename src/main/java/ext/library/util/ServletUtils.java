@@ -16,9 +16,12 @@ import cn.hutool.core.net.NetUtil;
 import cn.hutool.core.net.multipart.MultipartFormData;
 import cn.hutool.core.net.multipart.UploadSetting;
 import cn.hutool.core.util.*;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import ext.library.convert.Convert;
 import ext.library.web.properties.CookieProperties;
+import ext.library.web.repeatedly.RepeatedlyReadServletRequestWrapper;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.http.Cookie;
@@ -30,10 +33,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -55,6 +60,16 @@ public class ServletUtils {
     static final String BEARER_TYPE = "Bearer ";
     static final String ACCESS_TOKEN = "access_token";
 
+    /**
+     * 缓存已解析请求参数的请求属性
+     */
+    static final String PARAM_JSON_ATTRIBUTE = ServletUtils.class.getName() + ".PARAM_JSON";
+
+    /**
+     * 缓存请求参数只读视图的请求属性
+     */
+    static final String PARAM_VIEW_ATTRIBUTE = ServletUtils.class.getName() + ".PARAM_VIEW";
+
 
     /**
      * 获得当前请求上下文中的{@linkplain ServletRequestAttributes}
@@ -129,11 +144,88 @@ public class ServletUtils {
 
     /**
      * 获得请求 Json
+     * <p>请求参数在同一请求内只解析一次，返回的是解析结果的深拷贝，包括嵌套的对象与数组，可以修改
      *
      * @param request 请求对象{@link ServletRequest}
      * @return 解析的 Json
      */
     public static JSONObject getParamToJson(HttpServletRequest request) {
+        return (JSONObject) deepCopy(parseParam(request));
+    }
+
+    /**
+     * 获得请求参数的只读视图
+     *
+     * @return 请求参数
+     */
+    public static Map<String, Object> getParamView() {
+        return getParamView(getRequest());
+    }
+
+    /**
+     * 获得请求参数的只读视图
+     * <p>请求参数在同一请求内只解析一次，只读视图在同一请求内也只创建一次，只读取参数时使用此方法，避免复制
+     * <p>嵌套的对象与数组分别为只读的 {@link Map} 与 {@link List}，修改时抛出 {@link UnsupportedOperationException}
+     *
+     * @param request 请求对象{@link ServletRequest}
+     * @return 请求参数
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> getParamView(HttpServletRequest request) {
+        if (request.getAttribute(PARAM_VIEW_ATTRIBUTE) instanceof Map<?, ?> cached) {
+            return (Map<String, Object>) cached;
+        }
+        Map<String, Object> view = (Map<String, Object>) unmodifiable(parseParam(request));
+        request.setAttribute(PARAM_VIEW_ATTRIBUTE, view);
+        return view;
+    }
+
+    /**
+     * 深拷贝解析结果中的对象与数组，其余值不可变，直接复用
+     */
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            JSONObject copy = new JSONObject(map.size());
+            map.forEach((k, v) -> copy.put((String) k, deepCopy(v)));
+            return copy;
+        }
+        if (value instanceof List<?> list) {
+            JSONArray copy = new JSONArray(list.size());
+            for (Object element : list) {
+                copy.add(deepCopy(element));
+            }
+            return copy;
+        }
+        return value;
+    }
+
+    /**
+     * 将解析结果中的对象与数组逐层转换为只读视图
+     */
+    private static Object unmodifiable(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>(Math.max((int) (map.size() / 0.75f) + 1, 16));
+            map.forEach((k, v) -> copy.put((String) k, unmodifiable(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            for (Object element : list) {
+                copy.add(unmodifiable(element));
+            }
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    /**
+     * 解析请求参数与请求体，解析结果缓存在请求属性中
+     */
+    private static JSONObject parseParam(HttpServletRequest request) {
+        if (request.getAttribute(PARAM_JSON_ATTRIBUTE) instanceof JSONObject cached) {
+            return cached;
+        }
+
         // 获得所有请求参数
         Map<String, String> paramMap = ServletUtils.getParamMap(request);
         JSONObject paramJson = new JSONObject();
@@ -149,6 +241,7 @@ public class ServletUtils {
             }
         }
 
+        request.setAttribute(PARAM_JSON_ATTRIBUTE, paramJson);
         // 返回解析 Json
         return paramJson;
     }
@@ -164,12 +257,25 @@ public class ServletUtils {
 
     /**
      * 获得请求参数并转换为 JavaBean
+     * <p>请求参数尚未解析、只有请求体且请求体可反复读取时，直接从请求体输入流绑定，不经过中间的 JSONObject，也不复制请求体
      *
      * @param request 请求对象{@link ServletRequest}
      * @return 转换的 JavaBean
      */
     public static <T> T getParamToJavaBean(HttpServletRequest request, Class<T> clazz) {
-        return Convert.toJavaBean(getParamToJson(request), clazz);
+        if (request.getAttribute(PARAM_JSON_ATTRIBUTE) == null && request.getParameterMap().isEmpty()
+                && WebUtils.getNativeRequest(request, RepeatedlyReadServletRequestWrapper.class) != null) {
+            String encoding = request.getCharacterEncoding();
+            try (InputStream in = request.getInputStream()) {
+                T bean = JSON.parseObject(in, encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8, clazz);
+                if (bean != null) {
+                    return bean;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.debug("【Servlet】请求体直接绑定 {} 失败，改为解析请求参数：{}", clazz.getName(), e.getMessage());
+            }
+        }
+        return Convert.toJavaBean(parseParam(request), clazz);
     }
 
     /**
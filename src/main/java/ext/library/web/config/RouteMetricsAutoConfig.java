@@ -0,0 +1,79 @@
+package ext.library.web.config;
+
+import ext.library.web.log.LogProperties;
+import ext.library.web.metrics.RouteMetrics;
+import ext.library.web.metrics.RouteMetricsEndpoint;
+import ext.library.web.metrics.RouteMetricsMeterBinder;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 接口指标自动配置
+ * <p>存在 Micrometer 的 MeterRegistry 时注册为 Micrometer 指标，否则提供 JSON 查询接口
+ * <p>指标由日志拦截器记录，需同时启用 {@code ext.web.log.enabled} 与 {@code ext.web.log.metrics}
+ */
+@Slf4j
+@Configuration
+@AutoConfigureAfter(name = RouteMetricsAutoConfig.COMPOSITE_METER_REGISTRY_AUTO_CONFIG)
+@ConditionalOnProperty(prefix = LogProperties.PREFIX, name = {"enabled", "metrics"}, havingValue = "true")
+public class RouteMetricsAutoConfig {
+
+    static final String COMPOSITE_METER_REGISTRY_AUTO_CONFIG = "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration";
+    private static final String METER_REGISTRY = "io.micrometer.core.instrument.MeterRegistry";
+    private static final String METRICS_AUTO_CONFIG = "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration";
+
+    @Bean
+    public RouteMetrics routeMetrics() {
+        log.info("【接口指标】配置项：{}，记录各接口的延迟分布与错误数 ...", LogProperties.PREFIX + ".metrics");
+        return new RouteMetrics();
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = METER_REGISTRY)
+    @ConditionalOnBean(type = METER_REGISTRY)
+    static class MicrometerConfig {
+
+        @Bean
+        public RouteMetricsMeterBinder routeMetricsMeterBinder(RouteMetrics routeMetrics) {
+            log.info("【接口指标】注册 Micrometer 指标：ext.http.server.route.*");
+            return new RouteMetricsMeterBinder(routeMetrics);
+        }
+
+        /**
+         * 未引入 actuator 时 MeterBinder 不会自动绑定，手动绑定到各 MeterRegistry
+         */
+        @Bean
+        @ConditionalOnMissingClass(METRICS_AUTO_CONFIG)
+        public SmartInitializingSingleton routeMetricsMeterBinding(RouteMetricsMeterBinder routeMetricsMeterBinder,
+                                                                   ObjectProvider<MeterRegistry> meterRegistries) {
+            return () -> meterRegistries.orderedStream().forEach(routeMetricsMeterBinder::bindTo);
+        }
+
+    }
+
+    /**
+     * 未引入 Micrometer 或不存在 MeterRegistry 时提供查询接口
+     */
+    @Configuration
+    static class EndpointConfig {
+
+        @Bean
+        @ConditionalOnMissingBean(type = METER_REGISTRY)
+        public RouteMetricsEndpoint routeMetricsEndpoint(RouteMetrics routeMetrics) {
+            log.info("【接口指标】未注册 Micrometer 指标，提供查询接口：{}", LogProperties.PREFIX + ".metrics-path");
+            return new RouteMetricsEndpoint(routeMetrics);
+        }
+
+    }
+
+}
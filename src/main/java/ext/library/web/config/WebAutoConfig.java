@@ -87,7 +87,9 @@ public class WebAutoConfig {
         FilterRegistrationBean<RepeatedlyReadServletRequestFilter> filterRegistrationBean = new FilterRegistrationBean<>();
         // 设置比常规过滤器更高的优先级，防止输入流被更早读取
         filterRegistrationBean.setOrder(webProperties.getRepeatedlyReadServletRequestFilterOrder());
-        filterRegistrationBean.setFilter(new RepeatedlyReadServletRequestFilter());
+        filterRegistrationBean.setFilter(new RepeatedlyReadServletRequestFilter(
+                (int) Math.min(webProperties.getRepeatedlyReadMemoryThreshold().toBytes(), Integer.MAX_VALUE - 8),
+                webProperties.getRepeatedlyReadExcludeContentTypes(), webProperties.getRepeatedlyReadExcludePaths()));
         log.info("【Body 反复读取】配置项：{}，输入流可反复读取的 HttpServletRequest，执行初始化...", WebProperties.PREFIX + ".enabled-repeatedly-read-servlet-request");
         return filterRegistrationBean;
     }
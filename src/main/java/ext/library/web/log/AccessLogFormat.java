@@ -0,0 +1,18 @@
+package ext.library.web.log;
+
+/**
+ * 请求日志格式
+ */
+public enum AccessLogFormat {
+
+    /**
+     * 纯文本：127.0.0.1 5ms GET /text?a=b 200
+     */
+    PLAIN,
+
+    /**
+     * 每行一个 JSON 对象
+     */
+    JSON
+
+}
@@ -0,0 +1,339 @@
+package ext.library.web.log;
+
+import com.alibaba.fastjson2.JSONObject;
+import ext.library.constant.HttpAttribute;
+import ext.library.util.DateUtils;
+import ext.library.util.ServletUtils;
+import ext.library.util.VirtualThreadUtils;
+import ext.library.web.repeatedly.RepeatedlyReadServletRequestWrapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步请求日志
+ * <p>请求线程只把固定字段写入预分配的环形缓冲区，由一个虚拟线程批量取出、格式化并输出；缓冲区满时丢弃并计数，不阻塞请求
+ * <p>请求体直接从 {@link RepeatedlyReadServletRequestWrapper} 已缓存的字节中截取，不解析为 JSON；业务未读取请求体时不记录，
+ * 不为记录日志而读取或转存请求体
+ */
+class AccessLogWriter implements AutoCloseable {
+
+    /**
+     * 沿用日志拦截器的 logger，保持原有的日志配置
+     */
+    private static final Logger log = LoggerFactory.getLogger(LogInterceptor.class);
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * 每批最多处理的事件数
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * 空闲时最短轮询间隔（单位：毫秒）
+     */
+    private static final long MIN_IDLE_MS = 1;
+
+    /**
+     * 空闲时最长轮询间隔（单位：毫秒）
+     */
+    private static final long MAX_IDLE_MS = 100;
+
+    private final LogProperties logProperties;
+    private final Event[] slots;
+    private final int mask;
+
+    /**
+     * 下一个待领取的序号
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 下一个待消费的序号，仅由消费线程写入
+     */
+    private volatile long tail;
+
+    /**
+     * 缓冲区满时丢弃的事件数
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+    private final Future<?> consumer;
+
+    AccessLogWriter(LogProperties logProperties) {
+        this.logProperties = logProperties;
+        int capacity = Integer.highestOneBit(Math.max(logProperties.getBufferSize(), 2) - 1) << 1;
+        this.slots = new Event[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Event();
+        }
+        this.consumer = VirtualThreadUtils.submit(this::consume);
+    }
+
+    /**
+     * 记录请求日志，未命中采样或路径被排除时不记录
+     *
+     * @param request     请求
+     * @param response    响应
+     * @param requestTime 请求开始时间（单位：毫秒）
+     */
+    void record(HttpServletRequest request, HttpServletResponse response, long requestTime) {
+        if (!shouldLog(request)) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail >= slots.length) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        Event event = slots[(int) (sequence & mask)];
+        try {
+            long now = System.currentTimeMillis();
+            event.timestamp = now;
+            event.duration = now - requestTime;
+            event.clientIp = ServletUtils.getClientIP(request);
+            event.method = request.getMethod();
+            event.uri = request.getRequestURI();
+            event.query = request.getQueryString();
+            event.status = response.getStatus();
+            event.traceId = MDC.get(HttpAttribute.TRACE_ID);
+            if (logProperties.isBody() && ServletUtils.hasBodyMethod(request)) {
+                copyBody(request, event);
+            }
+            event.valid = true;
+        } catch (Exception e) {
+            event.valid = false;
+        } finally {
+            // 无论填充是否成功都要发布，否则消费线程会停在该槽
+            event.sequence = sequence;
+        }
+    }
+
+    /**
+     * 停止消费，缓冲区中剩余的事件输出后返回
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            consumer.get(1, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            consumer.cancel(true);
+        }
+    }
+
+    private boolean shouldLog(HttpServletRequest request) {
+        if (!logProperties.isRequest()) {
+            return false;
+        }
+        double sampleRate = logProperties.getSampleRate();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        List<String> includePaths = logProperties.getIncludePaths();
+        List<String> excludePaths = logProperties.getExcludePaths();
+        if (includePaths.isEmpty() && excludePaths.isEmpty()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excludePath : excludePaths) {
+            if (PATH_MATCHER.match(excludePath, path)) {
+                return false;
+            }
+        }
+        if (includePaths.isEmpty()) {
+            return true;
+        }
+        for (String includePath : includePaths) {
+            if (PATH_MATCHER.match(includePath, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从可反复读取的请求中截取已缓存的请求体；未包装的请求输入流已被消费，尚未缓存的请求体不为记录日志而读取，均不记录请求体
+     */
+    private void copyBody(HttpServletRequest request, Event event) throws IOException {
+        RepeatedlyReadServletRequestWrapper wrapper = WebUtils.getNativeRequest(request, RepeatedlyReadServletRequestWrapper.class);
+        if (wrapper == null) {
+            return;
+        }
+        long total = wrapper.bufferedLength();
+        if (total <= 0) {
+            return;
+        }
+        int limit = Math.max(logProperties.getBodyLimit(), 0);
+        if (event.body == null || event.body.length != limit) {
+            event.body = new byte[limit];
+        }
+        int length = wrapper.copyBuffered(event.body, limit);
+        event.bodyLength = Math.max(length, 0);
+        event.bodyTruncated = total > length;
+        event.charset = request.getCharacterEncoding();
+    }
+
+    private void consume() {
+        long idle = MIN_IDLE_MS;
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            int count = 0;
+            long next = tail;
+            Event event;
+            while (count < BATCH_SIZE && (event = slots[(int) (next & mask)]).sequence == next) {
+                if (event.valid) {
+                    writeSafely(event, line);
+                }
+                event.clear();
+                tail = ++next;
+                count++;
+            }
+            long droppedCount = dropped.getAndSet(0);
+            if (droppedCount > 0) {
+                log.warn("【请求日志】缓冲区已满，丢弃 {} 条请求日志", droppedCount);
+            }
+            if (count > 0) {
+                idle = MIN_IDLE_MS;
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(idle);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            idle = Math.min(idle * 2, MAX_IDLE_MS);
+        }
+    }
+
+    private void writeSafely(Event event, StringBuilder line) {
+        if (event.traceId != null) {
+            MDC.put(HttpAttribute.TRACE_ID, event.traceId);
+        }
+        try {
+            switch (logProperties.getFormat()) {
+                case PLAIN -> writePlain(event, line);
+                case JSON -> writeJson(event);
+            }
+        } catch (Exception e) {
+            log.error("【请求日志】输出失败：{} {}", event.method, event.uri, e);
+        } finally {
+            MDC.remove(HttpAttribute.TRACE_ID);
+        }
+    }
+
+    /**
+     * 请求日志 127.0.0.1 5ms GET /text?a=b 200，请求体另起一行
+     */
+    private void writePlain(Event event, StringBuilder line) {
+        line.setLength(0);
+        line.append(event.clientIp).append(' ').append(DateUtils.formatBetween(event.duration)).append(' ')
+                .append(event.method).append(' ').append(event.uri);
+        if (event.query != null && !event.query.isBlank()) {
+            line.append('?').append(event.query);
+        }
+        line.append(' ').append(event.status);
+        log.info(line.toString());
+        if (event.bodyLength > 0) {
+            log.info(body(event));
+        }
+    }
+
+    private void writeJson(Event event) {
+        JSONObject json = new JSONObject();
+        json.put("timestamp", event.timestamp);
+        json.put("traceId", event.traceId);
+        json.put("clientIp", event.clientIp);
+        json.put("method", event.method);
+        json.put("uri", event.uri);
+        json.put("query", event.query);
+        json.put("status", event.status);
+        json.put("duration", event.duration);
+        if (event.bodyLength > 0) {
+            json.put("body", body(event));
+        }
+        log.info(json.toString());
+    }
+
+    private static String body(Event event) {
+        Charset charset;
+        try {
+            charset = event.charset != null ? Charset.forName(event.charset) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            charset = StandardCharsets.UTF_8;
+        }
+        String body = new String(event.body, 0, event.bodyLength, charset);
+        return event.bodyTruncated ? body + "...(truncated)" : body;
+    }
+
+    /**
+     * 请求日志事件，环形缓冲区中预分配的槽，由请求线程填充、消费线程读取后清空
+     */
+    private static final class Event {
+
+        /**
+         * 已发布的序号，等于消费者当前序号时可读取
+         */
+        volatile long sequence = -1;
+
+        /**
+         * 填充是否成功，失败的事件跳过
+         */
+        boolean valid;
+
+        long timestamp;
+        long duration;
+        String clientIp;
+        String method;
+        String uri;
+        String query;
+        int status;
+        String traceId;
+
+        /**
+         * 截断后的请求体，按需分配，槽复用时保留
+         */
+        byte[] body;
+        int bodyLength;
+        boolean bodyTruncated;
+        String charset;
+
+        void clear() {
+            valid = false;
+            clientIp = null;
+            method = null;
+            uri = null;
+            query = null;
+            traceId = null;
+            bodyLength = 0;
+            bodyTruncated = false;
+            charset = null;
+        }
+
+    }
+
+}
@@ -2,11 +2,8 @@ package ext.library.web.log;
 
 import ext.library.constant.HttpAttribute;
 import ext.library.convert.Convert;
-import ext.library.util.DateUtils;
 import ext.library.util.IdUtils;
-import ext.library.util.ServletUtils;
-import ext.library.util.SpringUtils;
-import ext.library.util.StringUtils;
+import ext.library.web.metrics.RouteMetrics;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -14,8 +11,7 @@ import org.slf4j.MDC;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 import org.springframework.web.servlet.HandlerInterceptor;
-
-import java.util.StringJoiner;
+import org.springframework.web.servlet.HandlerMapping;
 
 /**
  * 日志拦截器
@@ -23,6 +19,25 @@ import java.util.StringJoiner;
 @Slf4j
 public class LogInterceptor implements HandlerInterceptor {
 
+    /**
+     * 静态资源处理器的兜底模板，未匹配到接口的请求会落到该模板
+     */
+    private static final String CATCH_ALL_PATTERN = "/**";
+
+    private final LogProperties logProperties;
+    private final AccessLogWriter accessLogWriter;
+
+    /**
+     * 接口指标，未启用时为 null
+     */
+    private final RouteMetrics routeMetrics;
+
+    LogInterceptor(LogProperties logProperties, AccessLogWriter accessLogWriter, RouteMetrics routeMetrics) {
+        this.logProperties = logProperties;
+        this.accessLogWriter = accessLogWriter;
+        this.routeMetrics = routeMetrics;
+    }
+
     /**
      * 在控制器（controller 方法）执行之前
      * <p>执行 traceId 生成并放置请求头
@@ -30,10 +45,12 @@ public class LogInterceptor implements HandlerInterceptor {
      */
     @Override
     public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
-        LogProperties logProperties = SpringUtils.getBean(LogProperties.class);
         // 请求时间
         long requestTime = System.currentTimeMillis();
         request.setAttribute(HttpAttribute.REQUEST_TIME, requestTime);
+        if (routeMetrics != null) {
+            request.setAttribute(HttpAttribute.REQUEST_NANO_TIME, System.nanoTime());
+        }
         // traceId 生成并放置请求头和 MDC
         if (logProperties.isTrace()) {
             String traceId = IdUtils.objectId();
@@ -45,18 +62,13 @@ public class LogInterceptor implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, @Nullable Exception ex) throws Exception {
-        // 请求日志 127.0.0.1 5ms GET /text?a=b
-        // 打印请求日志
-        long interval = System.currentTimeMillis() - Convert.toLong(request.getAttribute(HttpAttribute.REQUEST_TIME));
-        StringJoiner sj = new StringJoiner(" ");
-        sj.add(ServletUtils.getClientIP(request)).add(DateUtils.formatBetween(interval)).add(request.getMethod()).add(request.getRequestURI());
-        log.info(sj + (StringUtils.isNotBlank(request.getQueryString()) ? "?" + request.getQueryString() : ""));
-        LogProperties logProperties = SpringUtils.getBean(LogProperties.class);
-        if (ServletUtils.hasBodyMethod(request) && logProperties.isBody()) {
-            try {
-                log.info(ServletUtils.getParamToJson().toString());
-            } catch (Exception ignored) {
-            }
+        // 请求日志 127.0.0.1 5ms GET /text?a=b 200，异步输出
+        accessLogWriter.record(request, response, Convert.toLong(request.getAttribute(HttpAttribute.REQUEST_TIME)));
+        // 按路由模板记录延迟，未匹配到处理器的请求（包括落到静态资源 /** 的请求）归入同一路由
+        if (routeMetrics != null && request.getAttribute(HttpAttribute.REQUEST_NANO_TIME) instanceof Long start) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            routeMetrics.record(request.getMethod(), pattern == null || CATCH_ALL_PATTERN.equals(pattern) ? RouteMetrics.UNMATCHED : pattern.toString(),
+                    System.nanoTime() - start, ex != null || response.getStatus() >= 500);
         }
         // MDC 清空
         MDC.clear();
@@ -1,7 +1,10 @@
 package ext.library.web.log;
 
+import ext.library.web.metrics.RouteMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 
@@ -11,9 +14,15 @@ import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class LogInterceptorRegistry {
+public class LogInterceptorRegistry implements DisposableBean {
 
     final LogProperties logProperties;
+    final ObjectProvider<RouteMetrics> routeMetrics;
+
+    /**
+     * 异步请求日志，添加日志拦截器时创建
+     */
+    private AccessLogWriter accessLogWriter;
 
     /**
      * 添加日志拦截器
@@ -23,9 +32,17 @@ public class LogInterceptorRegistry {
             boolean logEnabled = logProperties.isEnabled();
             if (logEnabled) {
                 log.info("【请求日志】配置项：{}，添加日志拦截器 ...", LogProperties.PREFIX);
-                registry.addInterceptor(new LogInterceptor());
+                accessLogWriter = new AccessLogWriter(logProperties);
+                registry.addInterceptor(new LogInterceptor(logProperties, accessLogWriter, routeMetrics.getIfAvailable()));
             }
         }
     }
 
+    @Override
+    public void destroy() {
+        if (accessLogWriter != null) {
+            accessLogWriter.close();
+        }
+    }
+
 }
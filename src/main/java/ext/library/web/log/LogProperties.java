@@ -4,6 +4,9 @@ import ext.library.web.properties.WebProperties;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 全局统一异常处理自动配置属性
  */
@@ -42,4 +45,57 @@ public class LogProperties {
      */
     boolean trace = true;
 
+    /**
+     * 请求日志格式
+     * <p>
+     * 默认：PLAIN
+     */
+    AccessLogFormat format = AccessLogFormat.PLAIN;
+
+    /**
+     * 请求日志采样率，取值 0 ~ 1
+     * <p>
+     * 默认：1，记录全部请求
+     */
+    double sampleRate = 1;
+
+    /**
+     * 请求 body 日志的最大字节数，超出部分截断
+     * <p>
+     * 默认：1024
+     */
+    int bodyLimit = 1024;
+
+    /**
+     * 请求日志缓冲区大小（事件数），向上取整为 2 的幂，缓冲区满时丢弃新的请求日志
+     * <p>
+     * 默认：8192
+     */
+    int bufferSize = 8192;
+
+    /**
+     * 记录请求日志的路径（不含 context-path），Ant 风格，为空时记录全部路径
+     */
+    List<String> includePaths = new ArrayList<>();
+
+    /**
+     * 不记录请求日志的路径（不含 context-path），Ant 风格，优先于 includePaths
+     */
+    List<String> excludePaths = new ArrayList<>();
+
+    /**
+     * 是否记录各接口（按路由模板）的延迟分布与错误数，需同时启用 enabled
+     * <p>引入 Micrometer 时注册为 Micrometer 指标，否则通过 metricsPath 查询
+     * <p>
+     * 默认：false
+     */
+    boolean metrics = false;
+
+    /**
+     * 未引入 Micrometer 时接口指标的查询路径
+     * <p>
+     * 默认：/ext/metrics/routes
+     */
+    String metricsPath = "/ext/metrics/routes";
+
 }
@@ -0,0 +1,114 @@
+package ext.library.web.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * <p>与 HdrHistogram 相同的对数线性分桶：每个 2 的幂区间再等分为 {@link #SUB_BUCKET_COUNT} 个子桶，相对误差不超过 1/32；
+ * 以微秒记录，最大可记录约 19 小时，超出的按最大值记录
+ * <p>记录时只做原子自增，不加锁、不分配内存；统计值为启动以来的累计值
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * 可记录的最大值（单位：微秒）
+     */
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(index(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一次延迟
+     *
+     * @param nanos 延迟（单位：纳秒）
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+        counts.incrementAndGet(index(micros));
+        count.increment();
+        sum.add(micros);
+        if (micros > max.get()) {
+            max.accumulateAndGet(micros, Math::max);
+        }
+    }
+
+    /**
+     * 记录次数
+     *
+     * @return 次数
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 平均延迟
+     *
+     * @return 平均延迟（单位：毫秒），无记录时为 0
+     */
+    public double mean() {
+        long n = count.sum();
+        return n == 0 ? 0 : sum.sum() / 1000.0 / n;
+    }
+
+    /**
+     * 最大延迟
+     *
+     * @return 最大延迟（单位：毫秒）
+     */
+    public double max() {
+        return max.get() / 1000.0;
+    }
+
+    /**
+     * 分位延迟，返回所在子桶的上界
+     *
+     * @param quantile 分位，取值 0 ~ 1
+     * @return 分位延迟（单位：毫秒），无记录时为 0
+     */
+    public double percentile(double quantile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max((long) Math.ceil(quantile * total), 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), max.get()) / 1000.0;
+            }
+        }
+        return max();
+    }
+
+    /**
+     * 值所在的桶：小于 2 × {@link #SUB_BUCKET_COUNT} 的值每个值一个桶，更大的值按最高位所在的 2 的幂区间等分
+     */
+    private static int index(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT * 2) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKET_COUNT - 1)) + SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,136 @@
+package ext.library.web.metrics;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 接口指标
+ * <p>按请求方法与路由模板（如 {@code /user/{id}}，而非原始 URI）分别记录延迟直方图与错误数，路由数量不随请求参数增长
+ */
+public class RouteMetrics {
+
+    /**
+     * 未匹配到处理器的请求（如 404）使用的路由
+     */
+    public static final String UNMATCHED = "UNMATCHED";
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    /**
+     * 新路由的监听器，用于向监控系统注册指标
+     */
+    private final List<Consumer<Route>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 记录一次请求
+     *
+     * @param method 请求方法
+     * @param route  路由模板
+     * @param nanos  延迟（单位：纳秒）
+     * @param error  是否出错
+     */
+    public void record(String method, String route, long nanos, boolean error) {
+        String key = method + " " + route;
+        Route stats = routes.get(key);
+        if (stats == null) {
+            Route created = new Route(method, route);
+            stats = routes.putIfAbsent(key, created);
+            if (stats == null) {
+                // 只有写入成功的线程通知监听器
+                stats = created;
+                for (Consumer<Route> listener : listeners) {
+                    listener.accept(created);
+                }
+            }
+        }
+        stats.histogram.record(nanos);
+        if (error) {
+            stats.errors.increment();
+        }
+    }
+
+    /**
+     * 监听路由，已有的路由立即回调，之后新增的路由在首次记录时回调
+     *
+     * @param listener 监听器
+     */
+    public void onRoute(Consumer<Route> listener) {
+        listeners.add(listener);
+        routes.values().forEach(listener);
+    }
+
+    /**
+     * 所有路由的指标快照，按请求数降序
+     *
+     * @return 指标快照
+     */
+    public List<Snapshot> snapshot() {
+        List<Snapshot> snapshots = new ArrayList<>(routes.size());
+        for (Route route : routes.values()) {
+            snapshots.add(route.snapshot());
+        }
+        snapshots.sort(Comparator.comparingLong(Snapshot::count).reversed());
+        return snapshots;
+    }
+
+    /**
+     * 单个路由的指标
+     */
+    @Getter
+    public static final class Route {
+
+        private final String method;
+        private final String route;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        @Getter(AccessLevel.NONE)
+        private final LongAdder errors = new LongAdder();
+
+        private Route(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+
+        /**
+         * 错误数
+         *
+         * @return 错误数
+         */
+        public long errors() {
+            return errors.sum();
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(method, route, histogram.count(), errors.sum(), histogram.mean(), histogram.percentile(0.5),
+                    histogram.percentile(0.9), histogram.percentile(0.99), histogram.max());
+        }
+
+    }
+
+    /**
+     * 指标快照，延迟单位：毫秒
+     *
+     * @param method 请求方法
+     * @param route  路由模板
+     * @param count  请求数
+     * @param errors 错误数
+     * @param mean   平均延迟
+     * @param p50    P50 延迟
+     * @param p90    P90 延迟
+     * @param p99    P99 延迟
+     * @param max    最大延迟
+     */
+    public record Snapshot(String method, String route, long count, long errors, double mean, double p50, double p90,
+                           double p99, double max) {
+
+    }
+
+}
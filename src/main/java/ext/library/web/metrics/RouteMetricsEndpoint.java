@@ -0,0 +1,30 @@
+package ext.library.web.metrics;
+
+import ext.library.web.log.LogProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 接口指标查询，未引入 Micrometer 时提供
+ * <p>路径：{@code ext.web.log.metrics-path}，默认 {@code /ext/metrics/routes}
+ */
+@RestController
+@RequiredArgsConstructor
+public class RouteMetricsEndpoint {
+
+    private final RouteMetrics routeMetrics;
+
+    /**
+     * 所有路由的指标快照，按请求数降序
+     *
+     * @return 指标快照
+     */
+    @GetMapping("${" + LogProperties.PREFIX + ".metrics-path:/ext/metrics/routes}")
+    public List<RouteMetrics.Snapshot> routes() {
+        return routeMetrics.snapshot();
+    }
+
+}
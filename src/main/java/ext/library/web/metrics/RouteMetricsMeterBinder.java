@@ -0,0 +1,44 @@
+package ext.library.web.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+
+/**
+ * 将接口指标注册到 Micrometer
+ * <p>每个路由注册：请求数、错误数、P50/P90/P99 延迟与最大延迟（单位：毫秒），标签为 method、route
+ */
+@RequiredArgsConstructor
+public class RouteMetricsMeterBinder implements MeterBinder {
+
+    private static final String PREFIX = "ext.http.server.route";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final RouteMetrics routeMetrics;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        routeMetrics.onRoute(route -> register(registry, route));
+    }
+
+    private static void register(MeterRegistry registry, RouteMetrics.Route route) {
+        Tags tags = Tags.of("method", route.getMethod(), "route", route.getRoute());
+        LatencyHistogram histogram = route.getHistogram();
+        FunctionCounter.builder(PREFIX + ".requests", histogram, LatencyHistogram::count)
+                .tags(tags).description("请求数").register(registry);
+        FunctionCounter.builder(PREFIX + ".errors", route, RouteMetrics.Route::errors)
+                .tags(tags).description("错误数（5xx 或未处理的异常）").register(registry);
+        for (double quantile : QUANTILES) {
+            Gauge.builder(PREFIX + ".latency", histogram, h -> h.percentile(quantile))
+                    .tags(tags).tag("quantile", String.valueOf(quantile)).baseUnit("milliseconds")
+                    .description("分位延迟").strongReference(true).register(registry);
+        }
+        Gauge.builder(PREFIX + ".latency.max", histogram, LatencyHistogram::max)
+                .tags(tags).baseUnit("milliseconds").description("最大延迟").strongReference(true).register(registry);
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * 接口指标
+ */
+package ext.library.web.metrics;
@@ -4,6 +4,10 @@ import ext.library.constant.Constant;
 import ext.library.web.repeatedly.RepeatedlyReadServletRequestFilter;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Web 自动配置属性
@@ -30,4 +34,20 @@ public class WebProperties {
      */
     private int repeatedlyReadServletRequestFilterOrder = -999;
 
+    /**
+     * 可反复读取的请求体在内存中缓存的上限，超出时转存到临时文件
+     * <p>默认：1MB
+     */
+    private DataSize repeatedlyReadMemoryThreshold = DataSize.ofMegabytes(1);
+
+    /**
+     * 不包装为可反复读取的请求的 Content-Type，支持通配符，如：text/event-stream、application/*
+     */
+    private List<String> repeatedlyReadExcludeContentTypes = new ArrayList<>();
+
+    /**
+     * 不包装为可反复读取的请求路径（不含 context-path），Ant 风格，如：/upload/**
+     */
+    private List<String> repeatedlyReadExcludePaths = new ArrayList<>();
+
 }
@@ -1,26 +1,79 @@
 package ext.library.web.repeatedly;
 
 import ext.library.constant.Constant;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
-import jakarta.servlet.ServletRequest;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * RepeatedlyReadServletRequestWrapper 过滤器
  * <p>传递输入流可反复读取的 HttpServletRequest
  * <p>OncePerRequestFilter 是在一次外部请求中只过滤一次。对于服务器内部之间的 forward 等请求，不会再次执行过滤方法。
+ * <p>排除的 Content-Type 与路径不包装，如流式上传、SSE 等接口
  */
 @Slf4j
 public class RepeatedlyReadServletRequestFilter extends OncePerRequestFilter {
 
     private static final String PARAM_TRANSMIT = Constant.PREFIX + "Param-Transmit";
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final int memoryThreshold;
+    private final List<MediaType> excludeContentTypes;
+    private final List<String> excludePaths;
+
+    public RepeatedlyReadServletRequestFilter() {
+        this(Integer.MAX_VALUE, List.of(), List.of());
+    }
+
+    /**
+     * @param memoryThreshold     请求体在内存中缓存的上限（单位：字节），超出时转存到临时文件
+     * @param excludeContentTypes 不包装的 Content-Type
+     * @param excludePaths        不包装的请求路径，Ant 风格
+     */
+    public RepeatedlyReadServletRequestFilter(int memoryThreshold, List<String> excludeContentTypes, List<String> excludePaths) {
+        this.memoryThreshold = memoryThreshold;
+        this.excludeContentTypes = MediaType.parseMediaTypes(excludeContentTypes);
+        this.excludePaths = List.copyOf(excludePaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType != null && !excludeContentTypes.isEmpty()) {
+            try {
+                MediaType mediaType = MediaType.parseMediaType(contentType);
+                for (MediaType excludeContentType : excludeContentTypes) {
+                    if (excludeContentType.includes(mediaType)) {
+                        return true;
+                    }
+                }
+            } catch (InvalidMediaTypeException e) {
+                log.debug("无法解析的 Content-Type：{}", contentType);
+            }
+        }
+        if (!excludePaths.isEmpty()) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            for (String excludePath : excludePaths) {
+                if (PATH_MATCHER.match(excludePath, path)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @NonNull HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -32,8 +85,41 @@ public class RepeatedlyReadServletRequestFilter extends OncePerRequestFilter {
          */
         request.getParameter(PARAM_TRANSMIT);
 
-        ServletRequest requestWrapper = new RepeatedlyReadServletRequestWrapper(request);
-        filterChain.doFilter(requestWrapper, response);
+        RepeatedlyReadServletRequestWrapper requestWrapper = new RepeatedlyReadServletRequestWrapper(request, memoryThreshold);
+        try {
+            filterChain.doFilter(requestWrapper, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // 异步请求在完成后才能删除临时文件
+                request.getAsyncContext().addListener(new ReleaseListener(requestWrapper));
+            } else {
+                requestWrapper.release();
+            }
+        }
+    }
+
+    /**
+     * 异步请求完成后释放缓存的请求体
+     */
+    private record ReleaseListener(RepeatedlyReadServletRequestWrapper requestWrapper) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            requestWrapper.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
     }
 
 }
@@ -1,62 +1,257 @@
 package ext.library.web.repeatedly;
 
+import ext.library.util.Murmur3Hash128;
 import ext.library.util.ServletUtils;
-import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
+import lombok.extern.slf4j.Slf4j;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 包装 HttpServletRequest 实现输入流可重复读取
+ * <p>首次读取时才缓存请求体：不超过内存上限的缓存在内存中，超出的转存到临时文件，通过 {@link FileChannel} 读回
+ * <p>multipart 请求不缓存，直接读取原始输入流
  */
+@Slf4j
 public class RepeatedlyReadServletRequestWrapper extends HttpServletRequestWrapper {
 
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * 请求体在内存中缓存的上限（单位：字节）
+     */
+    private final int memoryThreshold;
+
+    /**
+     * 是否已缓存请求体
+     */
+    private boolean loaded;
+
+    /**
+     * 缓存在内存中的请求体，转存到临时文件或 multipart 请求时为 null
+     */
+    private byte[] body;
+    private int length;
+
+    /**
+     * 转存请求体的临时文件，未转存时为 null
+     */
+    private Path spillFile;
+
     /**
-     * 流中的数据
+     * 读取临时文件时打开的文件，请求结束时统一关闭，避免调用方未关闭输入流时泄漏文件句柄
      */
-    private final byte[] body;
+    private final List<FileChannel> openChannels = new ArrayList<>();
 
     public RepeatedlyReadServletRequestWrapper(HttpServletRequest request) {
+        this(request, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param request         原始请求
+     * @param memoryThreshold 请求体在内存中缓存的上限（单位：字节），超出时转存到临时文件
+     */
+    public RepeatedlyReadServletRequestWrapper(HttpServletRequest request, int memoryThreshold) {
         super(request);
-        // 获取流中的数据放到字节数组中
-        body = ServletUtils.getBodyBytes(request);
+        this.memoryThreshold = Math.max(memoryThreshold, 0);
+    }
+
+    /**
+     * 将缓存的请求体写入哈希，不复制请求体
+     *
+     * @param hash 哈希
+     * @throws IOException 读取请求体失败
+     */
+    public void hashBody(Murmur3Hash128 hash) throws IOException {
+        load();
+        if (body != null) {
+            hash.putLong(length);
+            hash.putBytes(body, 0, length);
+        } else if (spillFile != null) {
+            hash.putLong(Files.size(spillFile));
+            byte[] chunk = new byte[CHUNK_SIZE];
+            try (InputStream in = openSpillFile()) {
+                int n;
+                while ((n = in.read(chunk)) > 0) {
+                    hash.putBytes(chunk, 0, n);
+                }
+            }
+        } else {
+            hash.putLong(-1);
+        }
     }
 
+    /**
+     * 已缓存的请求体长度，不触发读取请求体
+     *
+     * @return 请求体长度（单位：字节），尚未缓存或 multipart 请求时返回 -1
+     * @throws IOException 读取临时文件大小失败
+     */
+    public long bufferedLength() throws IOException {
+        if (body != null) {
+            return length;
+        }
+        if (spillFile != null) {
+            return Files.size(spillFile);
+        }
+        return -1;
+    }
+
+    /**
+     * 复制已缓存请求体的前缀，不触发读取请求体；转存到临时文件时只读取前 len 个字节
+     *
+     * @param dest 目标数组
+     * @param len  最多复制的字节数
+     * @return 复制的字节数，尚未缓存或 multipart 请求时返回 -1
+     * @throws IOException 读取临时文件失败
+     */
+    public int copyBuffered(byte[] dest, int len) throws IOException {
+        if (body != null) {
+            int n = Math.min(len, length);
+            System.arraycopy(body, 0, dest, 0, n);
+            return n;
+        }
+        if (spillFile != null) {
+            try (FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ)) {
+                ByteBuffer buffer = ByteBuffer.wrap(dest, 0, len);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // 读满为止
+                }
+                return buffer.position();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 关闭打开的临时文件并删除，请求结束时调用
+     */
+    public void release() {
+        for (FileChannel channel : openChannels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("【Body 反复读取】关闭临时文件失败：{}", spillFile, e);
+            }
+        }
+        openChannels.clear();
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            log.warn("【Body 反复读取】删除临时文件失败：{}", spillFile, e);
+        }
+        spillFile = null;
+    }
+
+    /**
+     * 按请求声明的字符集解码，未声明时使用 UTF-8
+     */
     @Override
     public BufferedReader getReader() throws IOException {
-        return new BufferedReader(new InputStreamReader(getInputStream()));
+        String encoding = getCharacterEncoding();
+        Charset charset;
+        try {
+            charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedEncodingException(encoding);
+        }
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
     }
 
     @Override
     public ServletInputStream getInputStream() throws IOException {
-        // 缓存数据
-        final ByteArrayInputStream body = new ByteArrayInputStream(this.body);
-        return new ServletInputStream() {
-            @Override
-            public boolean isFinished() {
-                return false;
-            }
+        load();
+        if (spillFile != null) {
+            return ReplayServletInputStream.of(openChannel());
+        }
+        if (body != null) {
+            return ReplayServletInputStream.of(body, length);
+        }
+        return super.getInputStream();
+    }
 
-            @Override
-            public boolean isReady() {
-                return false;
+    /**
+     * 读取并缓存请求体，超出内存上限时转存到临时文件
+     */
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (ServletUtils.isMultipart((HttpServletRequest) getRequest())) {
+            return;
+        }
+        InputStream in = super.getInputStream();
+        int contentLength = getContentLength();
+        byte[] buffer = new byte[Math.min(contentLength >= 0 ? contentLength : CHUNK_SIZE, memoryThreshold)];
+        int count = 0;
+        while (true) {
+            if (count == buffer.length) {
+                // 先探测是否已到末尾，Content-Length 准确时不扩容
+                int next = in.read();
+                if (next < 0) {
+                    break;
+                }
+                if (count >= memoryThreshold) {
+                    spill(buffer, count, next, in);
+                    return;
+                }
+                buffer = Arrays.copyOf(buffer, (int) Math.min(memoryThreshold, Math.max(count * 2L, CHUNK_SIZE)));
+                buffer[count++] = (byte) next;
+                continue;
             }
-
-            @Override
-            public void setReadListener(ReadListener readListener) {
+            int n = in.read(buffer, count, buffer.length - count);
+            if (n < 0) {
+                break;
             }
+            count += n;
+        }
+        body = buffer;
+        length = count;
+    }
 
-            @Override
-            public int read() throws IOException {
-                // 从缓存的数据中读取数据
-                return body.read();
-            }
-        };
+    private void spill(byte[] head, int count, int next, InputStream in) throws IOException {
+        spillFile = Files.createTempFile("repeatedly-read-", ".body");
+        try (OutputStream out = Files.newOutputStream(spillFile)) {
+            out.write(head, 0, count);
+            out.write(next);
+            in.transferTo(out);
+        } catch (IOException e) {
+            release();
+            throw e;
+        }
+        log.debug("【Body 反复读取】请求体超过内存上限 {} 字节，已转存到临时文件：{}", memoryThreshold, spillFile);
+    }
+
+    private InputStream openSpillFile() throws IOException {
+        return Channels.newInputStream(openChannel());
+    }
+
+    private FileChannel openChannel() throws IOException {
+        FileChannel channel = FileChannel.open(spillFile, StandardOpenOption.READ);
+        openChannels.add(channel);
+        return channel;
     }
 
 }
@@ -0,0 +1,265 @@
+package ext.library.web.repeatedly;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 重放缓存请求体的输入流
+ * <p>数据已全部缓存，读取不会阻塞：{@link #isReady()} 始终为 true，{@link #isFinished()} 在读完后为 true；
+ * 设置 {@link ReadListener} 后立即回调 {@link ReadListener#onDataAvailable()}，读完最后一个字节时即回调 {@link ReadListener#onAllDataRead()}，
+ * 按 {@code while (isReady() && !isFinished())} 循环读取、不会读到 -1 的调用方也能收到通知
+ */
+abstract class ReplayServletInputStream extends ServletInputStream {
+
+    private ReadListener readListener;
+    private boolean allDataRead;
+
+    /**
+     * 重放内存中的请求体
+     *
+     * @param body   请求体
+     * @param length 有效长度
+     * @return 输入流
+     */
+    static ReplayServletInputStream of(byte[] body, int length) {
+        return new Memory(body, length);
+    }
+
+    /**
+     * 重放临时文件中的请求体，关闭输入流时关闭文件
+     *
+     * @param channel 临时文件
+     * @return 输入流
+     */
+    static ReplayServletInputStream of(FileChannel channel) {
+        return new File(channel);
+    }
+
+    @Override
+    public boolean isReady() {
+        return true;
+    }
+
+    @Override
+    public void setReadListener(ReadListener readListener) {
+        if (readListener == null) {
+            throw new NullPointerException("readListener");
+        }
+        if (this.readListener != null) {
+            throw new IllegalStateException("ReadListener 已设置");
+        }
+        this.readListener = readListener;
+        try {
+            if (isFinished()) {
+                notifyAllDataRead();
+            } else {
+                readListener.onDataAvailable();
+            }
+        } catch (IOException e) {
+            readListener.onError(e);
+        }
+    }
+
+    /**
+     * 读到末尾时回调 {@link ReadListener#onAllDataRead()}，只回调一次
+     */
+    protected void notifyAllDataRead() throws IOException {
+        if (readListener != null && !allDataRead) {
+            allDataRead = true;
+            readListener.onAllDataRead();
+        }
+    }
+
+    /**
+     * 读取或跳过后已到末尾时回调 {@link ReadListener#onAllDataRead()}
+     */
+    protected int checkEnd(int n) throws IOException {
+        if (n < 0 || isFinished()) {
+            notifyAllDataRead();
+        }
+        return n;
+    }
+
+    /**
+     * 跳过后已到末尾时回调 {@link ReadListener#onAllDataRead()}
+     */
+    protected long checkEnd(long skipped) throws IOException {
+        if (isFinished()) {
+            notifyAllDataRead();
+        }
+        return skipped;
+    }
+
+    private static final class Memory extends ReplayServletInputStream {
+
+        private final byte[] body;
+        private final int end;
+        private int position;
+        private int mark;
+
+        Memory(byte[] body, int length) {
+            this.body = body;
+            this.end = length;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position >= end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return checkEnd(position < end ? body[position++] & 0xFF : -1);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return checkEnd(-1);
+            }
+            int n = Math.min(len, end - position);
+            System.arraycopy(body, position, b, off, n);
+            position += n;
+            return checkEnd(n);
+        }
+
+        @Override
+        public byte[] readAllBytes() throws IOException {
+            byte[] bytes = Arrays.copyOfRange(body, position, end);
+            position = end;
+            notifyAllDataRead();
+            return bytes;
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            int n = end - position;
+            out.write(body, position, n);
+            position = end;
+            notifyAllDataRead();
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = Math.max(Math.min(n, end - position), 0);
+            position += (int) skipped;
+            return checkEnd(skipped);
+        }
+
+        @Override
+        public int available() {
+            return end - position;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = position;
+        }
+
+        @Override
+        public synchronized void reset() {
+            position = mark;
+        }
+
+    }
+
+    private static final class File extends ReplayServletInputStream {
+
+        private final FileChannel channel;
+
+        File(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean isFinished() {
+            try {
+                return channel.position() >= channel.size();
+            } catch (IOException e) {
+                return true;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0) {
+                return 0;
+            }
+            return checkEnd(channel.read(ByteBuffer.wrap(b, off, len)));
+        }
+
+        @Override
+        public byte[] readAllBytes() throws IOException {
+            long remaining = channel.size() - channel.position();
+            if (remaining > Integer.MAX_VALUE - 8) {
+                throw new OutOfMemoryError("请求体过大：" + remaining);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) remaining);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满为止
+            }
+            notifyAllDataRead();
+            return buffer.array();
+        }
+
+        @Override
+        public long transferTo(OutputStream out) throws IOException {
+            long position = channel.position();
+            long size = channel.size();
+            var target = Channels.newChannel(out);
+            long transferred = 0;
+            while (position + transferred < size) {
+                transferred += channel.transferTo(position + transferred, size - position - transferred, target);
+            }
+            channel.position(size);
+            notifyAllDataRead();
+            return transferred;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long position = channel.position();
+            long skipped = Math.max(Math.min(n, channel.size() - position), 0);
+            channel.position(position + skipped);
+            return checkEnd(skipped);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(channel.size() - channel.position(), Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+    }
+
+}